@@ -2,8 +2,12 @@ package com.coursegrade.CourseGraderBackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class CourseGraderBackendApplication {
 
 	public static void main(String[] args) {
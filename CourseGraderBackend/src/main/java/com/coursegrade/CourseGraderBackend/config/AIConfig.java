@@ -27,7 +27,8 @@ public class AIConfig {
     @Bean
     EmbeddingModel embeddingModel() {
         // model creates vectors with 384 dimensions
-        return new AllMiniLmL6V2EmbeddingModel();
+        // embedAll runs on the calling thread, EmbeddingPipeline already spreads batches over the cores
+        return new AllMiniLmL6V2EmbeddingModel(Runnable::run);
     }
 
     @Bean
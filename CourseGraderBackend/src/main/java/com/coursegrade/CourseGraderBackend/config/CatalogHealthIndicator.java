@@ -0,0 +1,26 @@
+package com.coursegrade.CourseGraderBackend.config;
+
+import com.coursegrade.CourseGraderBackend.service.CatalogLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the catalog load as the "catalog" health component. It is always UP: the API serves
+ * requests while the catalog loads, so a load in progress or a failed load must not take the
+ * instance out of rotation. Course counts are on /api/courses/catalog-status.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogHealthIndicator implements HealthIndicator {
+
+    private final CatalogLoader catalogLoader;
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("state", catalogLoader.getState().name())
+                .build();
+    }
+}
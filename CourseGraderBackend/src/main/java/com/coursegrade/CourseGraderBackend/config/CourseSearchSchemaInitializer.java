@@ -0,0 +1,36 @@
+package com.coursegrade.CourseGraderBackend.config;
+
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the trigram index behind CourseRepository.searchRankedCourseIds. Hibernate's ddl-auto
+ * can't express expression or GIN indexes, so it is created here once the schema exists.
+ */
+@Slf4j
+@Component
+@Order(0) // before DataInitializer starts scraping into the table
+@RequiredArgsConstructor
+public class CourseSearchSchemaInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_courses_search_trgm ON courses " +
+                    "USING gin ((" + CourseRepository.SEARCH_DOCUMENT + ") gin_trgm_ops)");
+            log.info("Course search trigram index ready");
+        } catch (Exception e) {
+            // Not PostgreSQL or no permission for the extension, searches fall back to the in-memory scan
+            log.warn("Could not create course search trigram index: {}", e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package com.coursegrade.CourseGraderBackend.config;
 
-import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
-import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
-import com.coursegrade.CourseGraderBackend.service.CourseService;
-import com.coursegrade.CourseGraderBackend.service.WebScraperService;
+import com.coursegrade.CourseGraderBackend.service.CatalogLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -13,18 +10,15 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class DataInitializer implements ApplicationRunner {
 
-    private final WebScraperService webScraperService;
-    private final CourseService courseService;
-    private final CollegeRepository collegeRepository;
+    private final CatalogLoader catalogLoader;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        if (courseService.getAllCourses().size() < 7500 || collegeRepository.count() == 0L) {
-            System.out.println("Missing data. Starting scraping...");
-            webScraperService.wrapperScrape();
-            System.out.println("Data initialization completed.");
+        if (catalogLoader.isLoadNeeded()) {
+            System.out.println("Missing data. Loading the catalog in the background...");
+            catalogLoader.start(); // returns right away, progress on /api/courses/catalog-status
         } else {
             System.out.println("Courses and colleges already exist in database. Skipping scraping.");
         }
     }
-}
\ No newline at end of file
+}
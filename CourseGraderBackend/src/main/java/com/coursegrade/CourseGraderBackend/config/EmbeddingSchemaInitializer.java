@@ -0,0 +1,33 @@
+package com.coursegrade.CourseGraderBackend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the index behind RagIngestionService's segment key lookups, so re-indexing a few courses or
+ * reviews doesn't scan every stored vector. The embeddings table belongs to the PgVector store, so the
+ * index is added here once the table exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingSchemaInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_embeddings_segment_key ON embeddings " +
+                    "((metadata ->> 'segment_key'))");
+            log.info("Embedding segment key index ready");
+        } catch (Exception e) {
+            // Not PostgreSQL or no embeddings table yet, key lookups fall back to a scan
+            log.warn("Could not create embedding segment key index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.coursegrade.CourseGraderBackend.config;
+
+import com.coursegrade.CourseGraderBackend.service.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class PageFetcherConfig {
+
+    @Bean
+    PageFetcher pageFetcher(@Value("${app.scraper.fetch-mode:live}") String fetchMode,
+                            @Value("${app.scraper.archive-dir:scrape-archive}") String archiveDir) {
+        switch (fetchMode) {
+            case "live":
+                return new LivePageFetcher();
+            case "record": // live scrape that also saves every page for later replay
+                return new RecordingPageFetcher(new LivePageFetcher(), new PageArchive(Path.of(archiveDir)));
+            case "replay": // offline, serves only what was recorded
+                return new ReplayPageFetcher(new PageArchive(Path.of(archiveDir)));
+            default:
+                throw new IllegalArgumentException("Unknown app.scraper.fetch-mode: " + fetchMode);
+        }
+    }
+}
@@ -48,6 +48,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/users/**").authenticated()
                         .requestMatchers("/api/auth/me").authenticated()
 
+                        // Actuator - health for load balancers, metrics for admins
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Everything else
                         .anyRequest().permitAll()
                 )
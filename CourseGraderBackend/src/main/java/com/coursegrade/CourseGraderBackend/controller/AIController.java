@@ -1,52 +1,56 @@
 package com.coursegrade.CourseGraderBackend.controller;
 
 import com.coursegrade.CourseGraderBackend.dto.ChatRequestDTO;
-import com.coursegrade.CourseGraderBackend.model.Course;
-import com.coursegrade.CourseGraderBackend.model.Review;
+import com.coursegrade.CourseGraderBackend.dto.RagSyncJobDTO;
 import com.coursegrade.CourseGraderBackend.model.User;
-import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
-import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
-import com.coursegrade.CourseGraderBackend.service.CourseService;
 import com.coursegrade.CourseGraderBackend.service.RagIngestionService;
 import com.coursegrade.CourseGraderBackend.service.RagService;
-import com.coursegrade.CourseGraderBackend.service.ReviewService;
-import jakarta.transaction.Transactional;
+import com.coursegrade.CourseGraderBackend.service.RagSyncJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/api/ai")
 @RequiredArgsConstructor
 public class AIController {
 
-    private final RagIngestionService ragIngestionService;
+    private final RagSyncJobService ragSyncJobService;
     private final RagService ragService;
-    private final ReviewRepository reviewRepository;
-    private final CourseRepository courseRepository;
 
     @PostMapping("/sync-courses")
-    public ResponseEntity<String> syncCourses() {
+    public ResponseEntity<RagSyncJobDTO> syncCourses() {
         log.info("Admin triggered Course sync...");
-        List<Course> allCourses = courseRepository.findAll();
-        ragIngestionService.ingestCourses(allCourses);
-        return ResponseEntity.ok("Course ingestion started for " + allCourses.size() + " courses.");
+        return ResponseEntity.accepted().body(ragSyncJobService.start(RagIngestionService.COURSE_TYPE));
     }
 
     @PostMapping("/sync-reviews")
-    public ResponseEntity<String> syncReviews() {
+    public ResponseEntity<RagSyncJobDTO> syncReviews() {
         log.info("Admin triggered Review sync...");
-        List<Review> allReviews = reviewRepository.findAll();
-        ragIngestionService.ingestReviews(allReviews);
-        return ResponseEntity.ok("Review ingestion started for " + allReviews.size() + " reviews.");
+        return ResponseEntity.accepted().body(ragSyncJobService.start(RagIngestionService.REVIEW_TYPE));
+    }
+
+    @GetMapping("/sync-jobs/{jobId}")
+    public ResponseEntity<RagSyncJobDTO> getSyncJob(@PathVariable String jobId) {
+        RagSyncJobDTO job = ragSyncJobService.status(jobId)
+                .orElseThrow(() -> new RuntimeException("Sync job not found"));
+        return ResponseEntity.ok(job);
+    }
+
+    @PostMapping("/sync-jobs/{jobId}/cancel")
+    public ResponseEntity<String> cancelSyncJob(@PathVariable String jobId) {
+        if (!ragSyncJobService.cancel(jobId)) {
+            throw new RuntimeException("Sync job not found or already finished");
+        }
+        return ResponseEntity.ok("Sync job cancelling");
     }
 
     @PostMapping("/chat")
@@ -1,9 +1,14 @@
 package com.coursegrade.CourseGraderBackend.controller;
 
+import com.coursegrade.CourseGraderBackend.dto.CatalogStatusDTO;
 import com.coursegrade.CourseGraderBackend.dto.CourseDTO;
 import com.coursegrade.CourseGraderBackend.dto.CourseDisplayDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchResultDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSuggestionDTO;
 import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.service.CatalogLoader;
 import com.coursegrade.CourseGraderBackend.service.CourseService;
+import com.coursegrade.CourseGraderBackend.service.CourseSuggestionIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +27,8 @@ import java.util.Set;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseSuggestionIndex courseSuggestionIndex;
+    private final CatalogLoader catalogLoader;
 
     @GetMapping
     public ResponseEntity<Page<CourseDisplayDTO>> getAllCourses(
@@ -62,6 +69,39 @@ public class CourseController {
         return ResponseEntity.ok(courses);
     }
 
+    @GetMapping("/search/faceted")
+    public ResponseEntity<CourseSearchResultDTO> searchCoursesFaceted(
+            @RequestParam(required = false) Set<String> colleges,
+            @RequestParam(required = false) Set<String> departments,
+            @RequestParam(required = false) Set<String> hubReqs,
+            @RequestParam(required = false) Boolean noPreReqs,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "byCourseCode") String sortBy,
+            @RequestParam(required = false) String searchQuery,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size
+    ) {
+        Pageable pageable = PageRequest.of(page, size);
+        CourseSearchResultDTO result = courseService.searchCoursesFaceted(
+                colleges, departments, hubReqs, noPreReqs, minRating, sortBy, searchQuery, pageable
+        );
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CourseSuggestionDTO>> suggestCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        int cappedLimit = Math.min(limit, CourseSuggestionIndex.MAX_SUGGESTIONS);
+        return ResponseEntity.ok(courseSuggestionIndex.suggest(q, cappedLimit));
+    }
+
+    @GetMapping("/catalog-status")
+    public ResponseEntity<CatalogStatusDTO> getCatalogStatus() {
+        return ResponseEntity.ok(catalogLoader.status());
+    }
+
     @GetMapping("/colleges")
     public ResponseEntity<List<String>> getAllColleges() {
         List<String> colleges = courseService.getAllColleges();
@@ -1,6 +1,7 @@
 package com.coursegrade.CourseGraderBackend.controller;
 
 import com.coursegrade.CourseGraderBackend.dto.CreateReviewDTO;
+import com.coursegrade.CourseGraderBackend.dto.ReviewPageDTO;
 import com.coursegrade.CourseGraderBackend.dto.ReviewResponseDTO;
 import com.coursegrade.CourseGraderBackend.model.User;
 import com.coursegrade.CourseGraderBackend.service.ReviewService;
@@ -61,12 +62,14 @@ public class ReviewController {
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<ReviewResponseDTO>> getCourseReviews(
+    public ResponseEntity<ReviewPageDTO> getCourseReviews(
             @PathVariable Long courseId,
             @AuthenticationPrincipal User currentUser,
-            @RequestParam(required = false) String teacherName
+            @RequestParam(required = false) String teacherName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
     ) {
-        List<ReviewResponseDTO> reviews = reviewService.getReviewsByCourseAndTeacher(courseId, currentUser, teacherName);
+        ReviewPageDTO reviews = reviewService.getReviewsByCourseAndTeacher(courseId, currentUser, teacherName, cursor, size);
         return ResponseEntity.ok(reviews);
     }
 
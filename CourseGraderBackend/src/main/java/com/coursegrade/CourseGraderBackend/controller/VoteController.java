@@ -8,6 +8,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("api/votes")
 @RequiredArgsConstructor
@@ -24,6 +26,15 @@ public class VoteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/reviews")
+    public ResponseEntity<List<VoteResponseDTO>> getReviewsVotes(
+            @RequestParam List<Long> ids,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        List<VoteResponseDTO> response = voteService.getReviewVotes(currentUser, ids);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/review/{reviewId}")
     public ResponseEntity<VoteResponseDTO> getReviewVotes(
             @PathVariable Long reviewId,
@@ -0,0 +1,22 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStatusDTO {
+    private String state; // IDLE, LOADING, READY, FAILED
+    private String step; // current load step while LOADING
+    private long courses;
+    private long coursesWithDetails; // hub requirements and description scraped
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
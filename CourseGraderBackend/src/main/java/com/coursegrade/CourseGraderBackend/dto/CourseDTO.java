@@ -28,4 +28,5 @@ public class CourseDTO {
     private Double averageTeacherRating;
     private Set<HubRequirementDTO> hubRequirements;
     private boolean userReviewed;
+    private ReviewPageDTO reviews; // first page, the rest via /api/reviews/course/{id}?cursor=
 }
@@ -0,0 +1,20 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFacetsDTO {
+    // number of courses matching the current filters, per value
+    private Map<String, Long> colleges;
+    private Map<String, Long> departments;
+    private Map<String, Long> hubRequirements; // keyed by HubRequirement name
+    private Map<String, Long> ratings; // keyed by floor of the average overall rating, "0" to "5", unrated courses left out
+}
@@ -0,0 +1,17 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFetchState {
+    private String baseUrl;
+    private String etag; // validators from the last fetch of baseUrl, sent back on the next one
+    private String lastModified;
+    private String contentHash; // of the hub list and description last written to the course
+}
@@ -0,0 +1,25 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSearchCriteria {
+    private Set<String> colleges;
+    private Set<String> departments;
+    private Set<HubRequirement> hubRequirements; // course must have all of them
+    private Boolean noPreReqs;
+    private Double minRating;
+    private String sortBy; // byCourseCode, byRating, byReviews, byRelevance
+    private String searchQuery;
+    private List<Long> rankedMatchIds; // byRelevance only: text index matches for searchQuery, best match first
+}
@@ -0,0 +1,16 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSearchResultDTO {
+    private Page<CourseDisplayDTO> courses;
+    private CourseFacetsDTO facets;
+}
@@ -0,0 +1,16 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSuggestionDTO {
+    private String id;
+    private String display; // "CAS CS 111"
+    private String title;
+}
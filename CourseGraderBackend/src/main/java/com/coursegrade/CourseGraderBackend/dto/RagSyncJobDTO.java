@@ -0,0 +1,26 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RagSyncJobDTO {
+    private String jobId;
+    private String type; // COURSE or REVIEW
+    private String state; // QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    private long total; // rows in the table when the job started
+    private long processed;
+    private long failed;
+    private double rowsPerSecond;
+    private Long etaSeconds; // null until there is a rate to go by
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
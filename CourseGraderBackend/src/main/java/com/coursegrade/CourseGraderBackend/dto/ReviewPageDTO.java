@@ -0,0 +1,18 @@
+package com.coursegrade.CourseGraderBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPageDTO {
+    private List<ReviewResponseDTO> reviews;
+    private String nextCursor; // pass back as cursor for the next page, null on the last page
+    private boolean hasMore;
+}
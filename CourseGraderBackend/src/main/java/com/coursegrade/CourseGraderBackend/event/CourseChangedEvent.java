@@ -0,0 +1,7 @@
+package com.coursegrade.CourseGraderBackend.event;
+
+/**
+ * A course's scraped details or rating totals changed. Listeners reload the course.
+ */
+public record CourseChangedEvent(Long courseId) {
+}
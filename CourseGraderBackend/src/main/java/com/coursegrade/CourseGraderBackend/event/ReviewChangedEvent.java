@@ -0,0 +1,8 @@
+package com.coursegrade.CourseGraderBackend.event;
+
+/**
+ * A review was created, edited or deleted, or its votes moved it across the RAG index threshold.
+ * Listeners reload the review, a missing review means it was deleted.
+ */
+public record ReviewChangedEvent(Long reviewId) {
+}
@@ -12,7 +12,11 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_college_department", columnList = "college, department") // department facet
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_courses_college_department_code", columnNames = {"college", "department", "course_code"}) // ScrapedCourseWriter upsert target
+})
 public class Course {
     @Id
     @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
@@ -37,6 +41,13 @@ public class Course {
     private Set<HubRequirement> hubRequirements = new HashSet<>();
     @Column(name = "base_url")
     private String baseUrl;
+    // Last scrape of baseUrl, lets a re-scrape send a conditional GET and skip unchanged pages
+    @Column(name = "etag")
+    private String etag;
+    @Column(name = "last_modified")
+    private String lastModified;
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
     @Column(name = "total_reviews")
     private Integer totalReviews;
     @Column(name = "average_overall_rating")
@@ -51,6 +62,17 @@ public class Course {
     private Double averageInterestRating;
     @Column(name = "average_teacher_rating")
     private Double averageTeacherRating;
+    // Running totals behind the averages, moved by CourseRepository.applyRatingDelta on every review write
+    @Column(name = "usefulness_rating_sum", columnDefinition = "bigint default 0")
+    private Long usefulnessRatingSum = 0L;
+    @Column(name = "difficulty_rating_sum", columnDefinition = "bigint default 0")
+    private Long difficultyRatingSum = 0L;
+    @Column(name = "workload_rating_sum", columnDefinition = "bigint default 0")
+    private Long workloadRatingSum = 0L;
+    @Column(name = "interest_rating_sum", columnDefinition = "bigint default 0")
+    private Long interestRatingSum = 0L;
+    @Column(name = "teacher_rating_sum", columnDefinition = "bigint default 0")
+    private Long teacherRatingSum = 0L;
 
     public String courseDisplay() {
         return college + " " + department + " " + courseCode; // Ex: CAS CS 111
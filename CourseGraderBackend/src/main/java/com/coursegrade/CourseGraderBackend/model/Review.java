@@ -14,7 +14,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_course_created", columnList = "course_id, created_at, id") // keyset paging
+})
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
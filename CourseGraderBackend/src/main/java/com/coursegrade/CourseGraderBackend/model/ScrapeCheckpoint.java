@@ -0,0 +1,24 @@
+package com.coursegrade.CourseGraderBackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished step of the catalog load, see CatalogLoader. Rows only exist while a load is unfinished.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "scrape_checkpoints")
+public class ScrapeCheckpoint {
+    @Id
+    @Column(name = "step")
+    private String step;
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
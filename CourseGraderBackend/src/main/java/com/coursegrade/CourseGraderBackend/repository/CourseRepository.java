@@ -2,18 +2,110 @@ package com.coursegrade.CourseGraderBackend.repository;
 
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {
+public interface CourseRepository extends JpaRepository<Course, Long>, CourseSearchRepository {
+    // Text the trigram index is built on, the query below must use the exact same expression
+    String SEARCH_DOCUMENT = "lower(college || ' ' || department || ' ' || course_code || ' ' || " +
+            "coalesce(title, '') || ' ' || coalesce(course_desc, ''))";
+
     Optional<Course> findByCourseCodeAndDepartmentAndCollege(String courseCode, String department, String college);
     List<Course> findByDepartment(String department);
     List<Course> findByCollege(String college);
+
+    // Answered from idx_courses_college_department alone, no course rows are loaded
+    @Query("SELECT DISTINCT c.department FROM Course c WHERE c.college = :college " +
+            "AND c.department IS NOT NULL ORDER BY c.department")
+    List<String> findDepartmentsByCollege(@Param("college") String college);
     List<Course> findByHubRequirementsIn(Set<HubRequirement> requirements);
     Optional<Course> findByBaseUrl(String baseUrl);
+
+    long countByContentHashIsNotNull();
+
+    // baseUrl, etag, lastModified, contentHash of every scraped course, without loading the rows
+    @Query("SELECT c.baseUrl, c.etag, c.lastModified, c.contentHash FROM Course c WHERE c.baseUrl IS NOT NULL")
+    List<Object[]> findFetchStates();
+
+    @Modifying
+    @Query("UPDATE Course c SET c.etag = :etag, c.lastModified = :lastModified WHERE c.baseUrl = :baseUrl")
+    int updateFetchValidators(@Param("baseUrl") String baseUrl, @Param("etag") String etag,
+                              @Param("lastModified") String lastModified);
+
+    @Query("SELECT DISTINCT c FROM Course c LEFT JOIN FETCH c.hubRequirements")
+    List<Course> findAllWithHubRequirements();
+
+    // Keyset chunks of ids in order, a fetch join can't be paged in the database so rows are loaded by id after
+    @Query("SELECT c.id FROM Course c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT c FROM Course c LEFT JOIN FETCH c.hubRequirements WHERE c.id IN :ids")
+    List<Course> findAllWithHubRequirementsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c FROM Course c LEFT JOIN FETCH c.hubRequirements WHERE c.id = :id")
+    Optional<Course> findWithHubRequirementsById(@Param("id") Long id);
+
+    /**
+     * Moves the review count and rating sums by the given deltas and recomputes every average from the
+     * new totals in the same statement, so concurrent review writes can't lose each other's changes.
+     * The right-hand sides all see the row's old values. Overall is ((6 - D) + (6 - W) + I + U + T) / 5
+     * over the averages, which is (12n - D - W + I + U + T) / 5n over the sums.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Course c SET " +
+            "c.totalReviews = c.totalReviews + :reviews, " +
+            "c.usefulnessRatingSum = c.usefulnessRatingSum + :usefulness, " +
+            "c.difficultyRatingSum = c.difficultyRatingSum + :difficulty, " +
+            "c.workloadRatingSum = c.workloadRatingSum + :workload, " +
+            "c.interestRatingSum = c.interestRatingSum + :interest, " +
+            "c.teacherRatingSum = c.teacherRatingSum + :teacher, " +
+            "c.averageUsefulnessRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (c.usefulnessRatingSum + :usefulness) / (c.totalReviews + :reviews) ELSE 0.0 END, " +
+            "c.averageDifficultyRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (c.difficultyRatingSum + :difficulty) / (c.totalReviews + :reviews) ELSE 0.0 END, " +
+            "c.averageWorkloadRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (c.workloadRatingSum + :workload) / (c.totalReviews + :reviews) ELSE 0.0 END, " +
+            "c.averageInterestRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (c.interestRatingSum + :interest) / (c.totalReviews + :reviews) ELSE 0.0 END, " +
+            "c.averageTeacherRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (c.teacherRatingSum + :teacher) / (c.totalReviews + :reviews) ELSE 0.0 END, " +
+            "c.averageOverallRating = CASE WHEN c.totalReviews + :reviews > 0 " +
+            "THEN 1.0 * (12 * (c.totalReviews + :reviews) " +
+            "- (c.difficultyRatingSum + :difficulty) - (c.workloadRatingSum + :workload) " +
+            "+ (c.interestRatingSum + :interest) + (c.usefulnessRatingSum + :usefulness) " +
+            "+ (c.teacherRatingSum + :teacher)) / (5 * (c.totalReviews + :reviews)) ELSE 0.0 END " +
+            "WHERE c.id = :courseId")
+    int applyRatingDelta(@Param("courseId") Long courseId, @Param("reviews") int reviews,
+                         @Param("usefulness") long usefulness, @Param("difficulty") long difficulty,
+                         @Param("workload") long workload, @Param("interest") long interest,
+                         @Param("teacher") long teacher);
+
+    @Query(value = "SELECT id FROM courses " +
+            "WHERE " + SEARCH_DOCUMENT + " LIKE :pattern " +
+            "ORDER BY CASE " +
+            "WHEN lower(college || ' ' || department || ' ' || course_code) LIKE :pattern THEN 3 " +
+            "WHEN lower(coalesce(title, '')) LIKE :pattern THEN 2 " +
+            "ELSE 1 END DESC, " +
+            "word_similarity(:query, lower(coalesce(title, ''))) DESC, id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findRankedCourseIds(@Param("query") String query, @Param("pattern") String pattern, @Param("limit") int limit);
+
+    /**
+     * Ids of courses whose code, title or description contain the query, code matches first,
+     * then title matches, then description only matches. Served by the pg_trgm index on SEARCH_DOCUMENT.
+     */
+    default List<Long> searchRankedCourseIds(String query, int limit) {
+        String normalizedQuery = query.trim().toLowerCase();
+        return findRankedCourseIds(normalizedQuery, "%" + CourseSpecifications.escapeLike(normalizedQuery) + "%", limit);
+    }
 }
@@ -0,0 +1,13 @@
+package com.coursegrade.CourseGraderBackend.repository;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseFacetsDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface CourseSearchRepository {
+    Page<Course> searchCourses(CourseSearchCriteria criteria, Pageable pageable);
+
+    CourseFacetsDTO searchFacets(CourseSearchCriteria criteria);
+}
@@ -0,0 +1,183 @@
+package com.coursegrade.CourseGraderBackend.repository;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseFacetsDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.*;
+
+/**
+ * Database backed course search: filtering, sorting and paging all run in SQL so only one page of
+ * courses is loaded. Hub requirements for the page are fetched with a second query by id.
+ */
+public class CourseSearchRepositoryImpl implements CourseSearchRepository {
+
+    private static final int COURSE_CODE_PAD = 16;
+    private static final int MAX_RATING_BUCKET = 5; // same buckets as the search index, a 5.0 rating lands in 5
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Course> searchCourses(CourseSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Specification<Course> spec = CourseSpecifications.matching(criteria);
+        if ("byRelevance".equals(criteria.getSortBy()) && criteria.getRankedMatchIds() != null) {
+            return searchByRelevance(criteria.getRankedMatchIds(), spec, cb, pageable);
+        }
+
+        CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+        Root<Course> root = idQuery.from(Course.class);
+        idQuery.select(root.get("id"))
+                .where(spec.toPredicate(root, idQuery, cb))
+                .orderBy(orders(criteria.getSortBy(), root, cb));
+        List<Long> ids = entityManager.createQuery(idQuery)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(loadInOrder(ids), pageable, () -> {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<Course> countRoot = countQuery.from(Course.class);
+            countQuery.select(cb.count(countRoot)).where(spec.toPredicate(countRoot, countQuery, cb));
+            return entityManager.createQuery(countQuery).getSingleResult();
+        });
+    }
+
+    /**
+     * Facet counts for the courses matching the criteria. JPQL has no GROUPING SETS, so college,
+     * department and rating bucket come from one GROUP BY at their combined grain and are rolled up
+     * here; hub requirements live in their own table and take a second grouped query.
+     */
+    @Override
+    public CourseFacetsDTO searchFacets(CourseSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Specification<Course> spec = CourseSpecifications.matching(criteria);
+
+        CriteriaQuery<Tuple> groupQuery = cb.createTupleQuery();
+        Root<Course> root = groupQuery.from(Course.class);
+        Expression<Double> bucket = cb.function("floor", Double.class, root.get("averageOverallRating"));
+        groupQuery.multiselect(root.get("college"), root.get("department"), bucket, cb.count(root))
+                .where(spec.toPredicate(root, groupQuery, cb))
+                .groupBy(root.get("college"), root.get("department"), bucket);
+        Map<String, Long> colleges = new TreeMap<>();
+        Map<String, Long> departments = new TreeMap<>();
+        long[] ratings = new long[MAX_RATING_BUCKET + 1];
+        for (Tuple row : entityManager.createQuery(groupQuery).getResultList()) {
+            String college = row.get(0, String.class);
+            String department = row.get(1, String.class);
+            Number rating = row.get(2, Number.class);
+            long count = row.get(3, Long.class);
+            if (college != null) colleges.merge(college, count, Long::sum);
+            if (department != null) departments.merge(department, count, Long::sum);
+            if (rating != null) ratings[Math.max(0, Math.min(MAX_RATING_BUCKET, rating.intValue()))] += count;
+        }
+
+        CriteriaQuery<Tuple> hubQuery = cb.createTupleQuery();
+        Root<Course> hubRoot = hubQuery.from(Course.class);
+        Join<Course, HubRequirement> hub = hubRoot.join("hubRequirements");
+        hubQuery.multiselect(hub, cb.count(hubRoot))
+                .where(spec.toPredicate(hubRoot, hubQuery, cb))
+                .groupBy(hub);
+        long[] hubs = new long[HubRequirement.values().length];
+        for (Tuple row : entityManager.createQuery(hubQuery).getResultList()) {
+            hubs[row.get(0, HubRequirement.class).ordinal()] = row.get(1, Long.class);
+        }
+
+        Map<String, Long> hubCounts = new LinkedHashMap<>();
+        for (HubRequirement requirement : HubRequirement.values()) {
+            if (hubs[requirement.ordinal()] > 0) hubCounts.put(requirement.name(), hubs[requirement.ordinal()]);
+        }
+        Map<String, Long> ratingCounts = new LinkedHashMap<>();
+        for (int i = 0; i < ratings.length; i++) {
+            if (ratings[i] > 0) ratingCounts.put(String.valueOf(i), ratings[i]);
+        }
+        return CourseFacetsDTO.builder()
+                .colleges(colleges)
+                .departments(departments)
+                .hubRequirements(hubCounts)
+                .ratings(ratingCounts)
+                .build();
+    }
+
+    /**
+     * Relevance only exists in the ranked id list, so filter the (bounded) list of text matches in SQL
+     * and page over it in rank order.
+     */
+    private Page<Course> searchByRelevance(List<Long> rankedIds, Specification<Course> spec,
+                                           CriteriaBuilder cb, Pageable pageable) {
+        CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+        Root<Course> root = idQuery.from(Course.class);
+        idQuery.select(root.get("id")).where(spec.toPredicate(root, idQuery, cb));
+        Set<Long> matching = new HashSet<>(entityManager.createQuery(idQuery).getResultList());
+        List<Long> ordered = new ArrayList<>();
+        for (Long id : rankedIds) {
+            if (matching.contains(id)) ordered.add(id);
+        }
+        int start = (int) Math.min(pageable.getOffset(), ordered.size());
+        int end = Math.min(start + pageable.getPageSize(), ordered.size());
+        return new PageImpl<>(loadInOrder(ordered.subList(start, end)), pageable, ordered.size());
+    }
+
+    private List<Order> orders(String sortBy, Root<Course> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        if ("byCourseCode".equals(sortBy)) {
+            // same order as CourseSearchIndex.compareCourseCodes: codes without digits (then nulls) last,
+            // leading digits zero padded so "99A" sorts before "111", then the rest so "111" before "111A"
+            Expression<String> code = root.get("courseCode");
+            Expression<String> digits = cb.function("regexp_replace", String.class,
+                    code, cb.literal("[^0-9].*$"), cb.literal(""));
+            Expression<String> rest = cb.function("regexp_replace", String.class,
+                    code, cb.literal("^[0-9]+"), cb.literal(""));
+            orders.add(cb.asc(cb.<Integer>selectCase()
+                    .when(cb.isNull(code), cb.literal(2))
+                    .when(cb.equal(digits, cb.literal("")), cb.literal(1))
+                    .otherwise(cb.literal(0))));
+            orders.add(cb.asc(cb.function("lpad", String.class, digits, cb.literal(COURSE_CODE_PAD), cb.literal("0"))));
+            orders.add(cb.asc(rest));
+        }
+        else if ("byRating".equals(sortBy)) {
+            orders.add(cb.desc(cb.coalesce(root.<Double>get("averageOverallRating"), -1.0))); // Descending, unrated last
+        }
+        else if ("byReviews".equals(sortBy)) {
+            orders.add(cb.desc(cb.coalesce(root.<Integer>get("totalReviews"), -1))); // Descending
+        }
+        orders.add(cb.asc(root.get("id"))); // stable paging
+        return orders;
+    }
+
+    private List<Course> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Course> courses = entityManager.createQuery(
+                        "SELECT DISTINCT c FROM Course c LEFT JOIN FETCH c.hubRequirements WHERE c.id IN :ids", Course.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, Course> byId = new HashMap<>();
+        for (Course course : courses) {
+            byId.put(course.getId(), course);
+        }
+        List<Course> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Course course = byId.get(id);
+            if (course != null) ordered.add(course);
+        }
+        return ordered;
+    }
+}
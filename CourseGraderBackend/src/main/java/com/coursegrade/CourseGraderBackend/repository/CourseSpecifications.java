@@ -0,0 +1,65 @@
+package com.coursegrade.CourseGraderBackend.repository;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public final class CourseSpecifications {
+
+    private CourseSpecifications() {
+    }
+
+    /**
+     * Same predicates as the in-memory course search, evaluated by the database.
+     */
+    public static Specification<Course> matching(CourseSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getColleges() != null && !criteria.getColleges().isEmpty()) {
+                predicates.add(root.get("college").in(criteria.getColleges()));
+            }
+            if (criteria.getDepartments() != null && !criteria.getDepartments().isEmpty()) {
+                predicates.add(root.get("department").in(criteria.getDepartments()));
+            }
+            if (criteria.getHubRequirements() != null) {
+                Expression<Set<HubRequirement>> hubs = root.get("hubRequirements");
+                for (HubRequirement hub : criteria.getHubRequirements()) { // all-of
+                    predicates.add(cb.isMember(hub, hubs));
+                }
+            }
+            if (Boolean.TRUE.equals(criteria.getNoPreReqs())) {
+                predicates.add(cb.isTrue(root.<Boolean>get("noPreReqs")));
+            }
+            if (criteria.getMinRating() != null && criteria.getMinRating() > 0) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Double>get("averageOverallRating"), criteria.getMinRating()));
+            }
+            String searchQuery = criteria.getSearchQuery();
+            if (criteria.getRankedMatchIds() != null) {
+                predicates.add(criteria.getRankedMatchIds().isEmpty()
+                        ? cb.disjunction()
+                        : root.get("id").in(criteria.getRankedMatchIds()));
+            }
+            else if (searchQuery != null && !searchQuery.trim().isEmpty()) {
+                String pattern = "%" + escapeLike(searchQuery.trim().toUpperCase()) + "%";
+                Expression<String> display = cb.concat(cb.concat(cb.concat(cb.concat(
+                        root.<String>get("college"), " "), root.<String>get("department")), " "), root.<String>get("courseCode")); // Ex: CAS CS 111
+                predicates.add(cb.or(
+                        cb.like(cb.upper(display), pattern, '\\'),
+                        cb.like(cb.upper(root.<String>get("title")), pattern, '\\')
+                ));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
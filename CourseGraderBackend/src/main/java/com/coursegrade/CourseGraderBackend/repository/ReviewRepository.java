@@ -3,9 +3,14 @@ package com.coursegrade.CourseGraderBackend.repository;
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +22,43 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Optional<Review> findByCourseAndUser(Course course, User user);
     List<Review> findByCourseAndTeacherNameContainingIgnoreCase(Course course, String teacherName);
     List<Review> findByUserOrderByCreatedAtDesc(User user);
-}
+    // Keyset chunks in id order for reading every review without holding them all, see RagSyncJobService
+    List<Review> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Keyset pages over (createdAt, id) newest first, the "after" variants continue below a cursor
+    @Query("SELECT r FROM Review r WHERE r.course = :course ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPageByCourse(@Param("course") Course course, Pageable pageable);
+
+    @Query("SELECT r FROM Review r WHERE r.course = :course " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPageByCourseAfter(@Param("course") Course course, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT r FROM Review r WHERE r.course = :course AND r.teacherName = :teacherName " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPageByCourseAndTeacher(@Param("course") Course course, @Param("teacherName") String teacherName,
+                                            Pageable pageable);
 
+    @Query("SELECT r FROM Review r WHERE r.course = :course AND r.teacherName = :teacherName " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPageByCourseAndTeacherAfter(@Param("course") Course course, @Param("teacherName") String teacherName,
+                                                 @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                 Pageable pageable);
+
+    // courseId, review count, then usefulness, difficulty, workload, interest and teacher sums
+    @Query("SELECT r.course.id, COUNT(r), SUM(r.usefulnessRating), SUM(r.difficultyRating), " +
+            "SUM(r.workloadRating), SUM(r.interestRating), SUM(r.teacherRating) " +
+            "FROM Review r GROUP BY r.course.id")
+    List<Object[]> sumRatingsByCourse();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Review r SET r.upvoteCount = r.upvoteCount + :upvotes, " +
+            "r.downvoteCount = r.downvoteCount + :downvotes WHERE r.id = :reviewId")
+    int adjustVoteCounts(@Param("reviewId") Long reviewId, @Param("upvotes") int upvotes,
+                         @Param("downvotes") int downvotes);
+
+    @Query("SELECT r.upvoteCount - r.downvoteCount FROM Review r WHERE r.id = :reviewId")
+    Optional<Integer> findNetVotes(@Param("reviewId") Long reviewId); // empty once the review is deleted
+}
@@ -0,0 +1,9 @@
+package com.coursegrade.CourseGraderBackend.repository;
+
+import com.coursegrade.CourseGraderBackend.model.ScrapeCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScrapeCheckpointRepository extends JpaRepository<ScrapeCheckpoint, String> {
+}
@@ -3,9 +3,14 @@ package com.coursegrade.CourseGraderBackend.repository;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.User;
 import com.coursegrade.CourseGraderBackend.model.Vote;
+import com.coursegrade.CourseGraderBackend.model.VoteType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +19,16 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     Optional<Vote> findByUserAndReview(User user, Review review);
     List<Vote> findByReview(Review review);
     List<Vote> findByUser(User user);
+    List<Vote> findByUserAndReviewIdIn(User user, Collection<Long> reviewIds); // one query for a page of reviews
+    List<Vote> findByReviewIdAndUserIdIn(Long reviewId, Collection<Long> userIds);
+
+    // Conditional on the type the caller read, 0 rows means another request changed the vote first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Vote v WHERE v.id = :voteId AND v.voteType = :voteType")
+    int deleteIfType(@Param("voteId") Long voteId, @Param("voteType") VoteType voteType);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Vote v SET v.voteType = :newType WHERE v.id = :voteId AND v.voteType = :oldType")
+    int changeTypeIfCurrent(@Param("voteId") Long voteId, @Param("oldType") VoteType oldType,
+                            @Param("newType") VoteType newType);
 }
@@ -1,11 +1,13 @@
 package com.coursegrade.CourseGraderBackend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +24,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+
+    @Value("${app.jwt.stateless-principal:false}") // principal from token claims, no user lookup per request
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -34,10 +40,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             return;
         }
         String jwt = header.substring(7);
-        String username = jwtService.extractEmail(jwt);
+        Claims claims = jwtService.extractAllClaims(jwt); // the only signature check for this request
+        String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            UserDetails userDetails = statelessPrincipal
+                    ? userPrincipalCache.resolve(claims)
+                    : userDetailsService.loadUserByUsername(username);
+            if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
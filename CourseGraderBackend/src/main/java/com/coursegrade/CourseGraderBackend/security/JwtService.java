@@ -1,22 +1,30 @@
 package com.coursegrade.CourseGraderBackend.security;
 
+import com.coursegrade.CourseGraderBackend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    // carried in every token so the stateless principal needs no user lookup (see UserPrincipalCache)
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String ENABLED_CLAIM = "enabled";
 
     @Value("${app.jwt.secret}")
     private String secretKey;
@@ -24,6 +32,28 @@ public class JwtService {
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${app.jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+
+    private Key signInKey;
+    private JwtParser parser; // immutable and thread safe once built
+    private Map<String, CachedClaims> claimsCache; // SHA-256 of the token -> verified claims, least recently used first
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey); // Key must be 32 bytes
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        claimsCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > claimsCacheSize;
+            }
+        };
+    }
+
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -37,40 +67,77 @@ public class JwtService {
         return generateToken(userDetails, new HashMap<>());
     }
 
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(ENABLED_CLAIM, user.isEnabled());
+        return generateToken(user, claims);
+    }
+
     public String generateToken(UserDetails userDetails, Map<String, Object> claims) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * For callers that already hold the verified claims, so a request checks the signature once.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verified claims of the token. A token seen before is served from the cache until it expires,
+     * anything invalid throws the usual jjwt exceptions.
+     */
+    public Claims extractAllClaims(String token) {
+        String hash = hash(token);
+        synchronized (claimsCache) {
+            CachedClaims cached = claimsCache.get(hash);
+            if (cached != null) {
+                if (cached.expiresAt > System.currentTimeMillis()) return cached.claims;
+                claimsCache.remove(hash); // expired, parsing below throws ExpiredJwtException
+            }
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) { // tokens without an expiry are not cached
+            synchronized (claimsCache) {
+                claimsCache.put(hash, new CachedClaims(claims, claims.getExpiration().getTime()));
+            }
+        }
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Key getSignInKey() {
+        return signInKey;
     }
 
-    public Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey); // Key must be 32 bytes
-        return Keys.hmacShaKeyFor(keyBytes);
+    int cachedTokens() {
+        synchronized (claimsCache) {
+            return claimsCache.size();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) { // every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedClaims(Claims claims, long expiresAt) {
     }
 
 }
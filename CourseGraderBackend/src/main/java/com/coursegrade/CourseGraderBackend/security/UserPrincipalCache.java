@@ -0,0 +1,105 @@
+package com.coursegrade.CourseGraderBackend.security;
+
+import com.coursegrade.CourseGraderBackend.model.Role;
+import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request principals for app.jwt.stateless-principal. A token carries the user's id, role and enabled
+ * flag, so the principal is built from its claims instead of loading the user on every request.
+ * Password changes, role changes and deletions call invalidate: tokens issued before that are then
+ * resolved from the database, and deleted users are rejected. Principals are cached for a short TTL.
+ * Invalidation is per instance, so the mode is meant for a single backend or a short token lifetime.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache {
+
+    private static final int MAX_CACHED_PRINCIPALS = 10000;
+
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<Long, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> changedAt = new ConcurrentHashMap<>(); // userId -> epoch millis
+
+    @Value("${app.jwt.principal-cache-ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpiration;
+
+    /**
+     * The principal for verified claims, or null when the account no longer exists.
+     */
+    public User resolve(Claims claims) {
+        Object userId = claims.get(JwtService.USER_ID_CLAIM);
+        if (userId == null) { // issued before tokens carried the id
+            return userRepository.findByEmail(claims.getSubject()).orElse(null);
+        }
+        Long id = ((Number) userId).longValue();
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principals.get(id);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.user;
+        }
+        User user;
+        Long changed = changedAt.get(id);
+        // iat has second precision, so a token issued in the same second as a change also goes to the database
+        if (changed != null && claims.getIssuedAt().getTime() <= changed) {
+            user = userRepository.findById(id).orElse(null);
+            if (user == null) return null;
+        }
+        else {
+            user = fromClaims(id, claims);
+        }
+        if (principals.size() >= MAX_CACHED_PRINCIPALS) {
+            principals.values().removeIf(principal -> principal.expiresAt <= now);
+        }
+        principals.put(id, new CachedPrincipal(user, now + ttlMillis));
+        return user;
+    }
+
+    /**
+     * Call when a user's password, role or existence changes. Takes effect once the current transaction
+     * commits, so a request in between cannot cache the old row.
+     */
+    public void invalidate(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    private void evict(Long userId) {
+        long now = System.currentTimeMillis();
+        changedAt.put(userId, now);
+        principals.remove(userId);
+        // once every token issued before a change has expired, the change no longer matters
+        changedAt.values().removeIf(changed -> changed < now - jwtExpiration);
+    }
+
+    private static User fromClaims(Long id, Claims claims) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(claims.getSubject());
+        user.setRole(Role.valueOf(claims.get(JwtService.ROLE_CLAIM, String.class)));
+        user.setEnabled(Boolean.TRUE.equals(claims.get(JwtService.ENABLED_CLAIM, Boolean.class)));
+        return user;
+    }
+
+    private record CachedPrincipal(User user, long expiresAt) {
+    }
+}
@@ -9,6 +9,7 @@ import com.coursegrade.CourseGraderBackend.repository.PasswordResetTokenReposito
 import com.coursegrade.CourseGraderBackend.repository.UserRepository;
 import com.coursegrade.CourseGraderBackend.repository.VerificationTokenRepository;
 import com.coursegrade.CourseGraderBackend.security.JwtService;
+import com.coursegrade.CourseGraderBackend.security.UserPrincipalCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -26,6 +27,7 @@ public class AuthService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final EmailService emailService;
     private final JwtService jwtService;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Transactional
     public void register(String email, String college, String major, Integer expectedGrad, String password) {
@@ -150,6 +152,7 @@ public class AuthService {
         passwordResetTokenRepository.delete(token);
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
     }
 
     @Transactional
@@ -161,6 +164,7 @@ public class AuthService {
         }
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userPrincipalCache.invalidate(userId);
     }
 
     public UserResponseDTO getCurrentUser(String token) {
@@ -0,0 +1,38 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Names of the catalog reference caches (Caffeine, configured by spring.cache.* in application.properties)
+ * and the evictions the scraper runs after writing colleges, majors or courses. Hit, miss and eviction
+ * counts are published as the cache.gets and cache.evictions metrics.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    public static final String COLLEGES = "colleges";
+    public static final String COLLEGE_MAJORS = "collegeMajors";
+    public static final String COLLEGE_DEPARTMENTS = "collegeDepartments";
+
+    private final CacheManager cacheManager;
+
+    public void evictColleges() {
+        clear(COLLEGES);
+        clear(COLLEGE_MAJORS);
+    }
+
+    public void evictDepartments() {
+        clear(COLLEGE_DEPARTMENTS);
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
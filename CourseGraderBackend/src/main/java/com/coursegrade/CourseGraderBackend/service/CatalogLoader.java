@@ -0,0 +1,163 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CatalogStatusDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseFetchState;
+import com.coursegrade.CourseGraderBackend.model.ScrapeCheckpoint;
+import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ScrapeCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Loads the course catalog in the background so the server takes traffic while it runs. The load is
+ * split into steps that are checkpointed in scrape_checkpoints: a restart resumes after the last
+ * finished step, and the course details step only fetches courses that have no scraped content yet.
+ * Progress is reported by status(), see CourseController and CatalogHealthIndicator.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogLoader {
+
+    public static final long MIN_COURSES = 7500; // a complete catalog has about 8000
+    static final String STARTED_STEP = "started";
+    static final String MAJORS_STEP = "majors";
+    static final String COURSE_NAMES_STEP = "course-names";
+    static final String COURSE_DETAILS_STEP = "course-details";
+    static final String REFRESH_STEP = "refresh";
+
+    public enum State { IDLE, LOADING, READY, FAILED }
+
+    private final WebScraperService webScraperService;
+    private final CourseService courseService;
+    private final CourseRepository courseRepository;
+    private final CollegeRepository collegeRepository;
+    private final ScrapeCheckpointRepository checkpointRepository;
+
+    private volatile State state = State.IDLE;
+    private volatile String step;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    /**
+     * True when the catalog is missing or short, or an earlier load never finished.
+     */
+    public boolean isLoadNeeded() {
+        return checkpointRepository.count() > 0
+                || collegeRepository.count() == 0L
+                || courseRepository.count() < MIN_COURSES;
+    }
+
+    /**
+     * Starts (or resumes) the catalog load on a background thread. Returns false if a load or
+     * refresh is already running.
+     */
+    public synchronized boolean start() {
+        if (state == State.LOADING) return false;
+        begin(STARTED_STEP);
+        Thread loader = new Thread(this::load, "catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return true;
+    }
+
+    /**
+     * Conditional re-scrape of the whole catalog on app.scraper.refresh-cron, off unless that is set.
+     * Unchanged course pages cost a 304 and no database write. Skipped while a load is running. Runs on
+     * its own thread like start(), so the scrape never holds up the scheduler's short flush jobs.
+     */
+    @Scheduled(cron = "${app.scraper.refresh-cron:-}")
+    public synchronized void refreshCatalog() {
+        if (state == State.LOADING) {
+            log.info("Catalog load in progress, skipping scheduled refresh");
+            return;
+        }
+        begin(REFRESH_STEP);
+        Thread refresher = new Thread(this::refresh, "catalog-refresh");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    void refresh() {
+        try {
+            webScraperService.wrapperScrape();
+            finish(null);
+        } catch (RuntimeException e) {
+            log.error("Catalog refresh failed", e);
+            finish(e);
+        }
+    }
+
+    void load() {
+        try {
+            if (!checkpointRepository.existsById(STARTED_STEP)) {
+                checkpoint(STARTED_STEP);
+            }
+            if (!checkpointRepository.existsById(MAJORS_STEP)) {
+                step = MAJORS_STEP;
+                webScraperService.scrapeMajors();
+                checkpoint(MAJORS_STEP);
+            }
+            if (!checkpointRepository.existsById(COURSE_NAMES_STEP)) {
+                step = COURSE_NAMES_STEP;
+                webScraperService.scrapeCourseNames();
+                checkpoint(COURSE_NAMES_STEP);
+            }
+            step = COURSE_DETAILS_STEP;
+            List<String> remaining = courseService.getFetchStates().values().stream()
+                    .filter(fetchState -> fetchState.getContentHash() == null) // not scraped yet
+                    .map(CourseFetchState::getBaseUrl)
+                    .sorted()
+                    .toList();
+            log.info("Scraping details of {} courses", remaining.size());
+            webScraperService.courseHubsAndDescription(remaining);
+            checkpointRepository.deleteAll(); // load complete, nothing to resume
+            finish(null);
+            log.info("Catalog load finished");
+        } catch (RuntimeException e) {
+            log.error("Catalog load failed in step {}, it resumes from there on the next start", step, e);
+            finish(e);
+        }
+    }
+
+    public CatalogStatusDTO status() {
+        return CatalogStatusDTO.builder()
+                .state(state.name())
+                .step(state == State.LOADING ? step : null)
+                .courses(courseRepository.count())
+                .coursesWithDetails(courseRepository.countByContentHashIsNotNull())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void begin(String firstStep) {
+        state = State.LOADING;
+        step = firstStep;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        error = null;
+    }
+
+    private void finish(RuntimeException failure) {
+        error = failure == null ? null : failure.getMessage();
+        finishedAt = LocalDateTime.now();
+        state = failure == null ? State.READY : State.FAILED;
+    }
+
+    private void checkpoint(String completedStep) {
+        checkpointRepository.save(new ScrapeCheckpoint(completedStep, LocalDateTime.now()));
+    }
+}
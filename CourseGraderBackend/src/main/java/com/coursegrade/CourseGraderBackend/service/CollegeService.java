@@ -3,6 +3,7 @@ package com.coursegrade.CourseGraderBackend.service;
 import com.coursegrade.CourseGraderBackend.model.College;
 import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
@@ -15,12 +16,14 @@ public class CollegeService {
 
     private final CollegeRepository collegeRepository;
 
+    @Cacheable(CatalogCache.COLLEGE_MAJORS)
     public Set<String> getMajorsByCollege(String college) {
         College col = collegeRepository.findById(college)
                 .orElseThrow(() -> new RuntimeException("College not found"));
-        return col.getMajors();
+        return new HashSet<>(col.getMajors()); // a plain set, the cached value outlives the session
     }
 
+    @Cacheable(CatalogCache.COLLEGES)
     public Set<String> getAllColleges() {
         Set<String> cols = new HashSet<>();
         List<College> colleges = collegeRepository.findAll();
@@ -0,0 +1,168 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Takes course rating updates off the review request path. Review writes enqueue their delta once their
+ * transaction commits, pending work is coalesced per course, and a scheduled flush applies one UPDATE
+ * (or one full recompute) per course however many reviews arrived in between. Updates that fail on a
+ * database error are queued again for the next flush. Anything lost here, e.g. on a crash, is repaired
+ * by CourseRatingReconciler, which queues its recomputes here so they absorb any pending deltas.
+ */
+@Slf4j
+@Service
+public class CourseRatingAggregator {
+
+    private final CourseService courseService;
+    private final ConcurrentHashMap<Long, PendingRating> pending = new ConcurrentHashMap<>();
+    private final Counter enqueued;
+    private final Counter applied;
+
+    public CourseRatingAggregator(CourseService courseService, MeterRegistry meterRegistry) {
+        this.courseService = courseService;
+        Gauge.builder("ratings.aggregation.queue.depth", pending, ConcurrentHashMap::size)
+                .description("Courses with rating updates waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("ratings.aggregation.lag", this, CourseRatingAggregator::lagSeconds)
+                .description("Age of the oldest rating update not yet applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.enqueued = Counter.builder("ratings.aggregation.enqueued")
+                .description("Review writes queued for rating aggregation")
+                .register(meterRegistry);
+        this.applied = Counter.builder("ratings.aggregation.applied")
+                .description("Coalesced per-course rating updates written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same arguments as CourseService.applyRatingDelta, applied after the current transaction commits.
+     */
+    public void enqueueDelta(Long courseId, int reviews, int usefulness, int difficulty,
+                             int workload, int interest, int teacher) {
+        enqueue(courseId, new PendingRating(false, reviews, usefulness, difficulty, workload, interest, teacher));
+    }
+
+    /**
+     * Full recompute of the course after the current transaction commits, for bulk changes such as
+     * deleting a user where the removed reviews are no longer around to build deltas from.
+     */
+    public void enqueueRecompute(Long courseId) {
+        enqueue(courseId, new PendingRating(true, 0, 0, 0, 0, 0, 0));
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratings.flush-interval-ms:1000}")
+    public void flush() {
+        for (Long courseId : pending.keySet()) {
+            PendingRating rating = pending.remove(courseId);
+            if (rating == null || rating.isEmpty()) continue;
+            try {
+                if (rating.recompute) {
+                    courseService.updateCourseRatings(courseId);
+                }
+                else {
+                    courseService.applyRatingDelta(courseId, rating.reviews, rating.usefulness, rating.difficulty,
+                            rating.workload, rating.interest, rating.teacher);
+                }
+                applied.increment();
+            } catch (DataAccessException | TransactionException e) {
+                // merged with anything queued meanwhile, so no committed review is lost
+                pending.merge(courseId, rating, PendingRating::merge);
+                log.warn("Could not apply ratings for course {}, retrying on the next flush: {}", courseId, e.getMessage());
+                return; // the database is likely down for the other courses too
+            } catch (RuntimeException e) {
+                log.warn("Could not apply ratings for course {}: {}", courseId, e.getMessage()); // course deleted
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    public int queueDepth() {
+        return pending.size();
+    }
+
+    double lagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingRating rating : pending.values()) {
+            oldest = Math.min(oldest, rating.enqueuedAt);
+        }
+        return oldest == Long.MAX_VALUE ? 0.0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private void enqueue(Long courseId, PendingRating rating) {
+        Runnable add = () -> {
+            pending.merge(courseId, rating, PendingRating::merge);
+            enqueued.increment();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add.run();
+            return;
+        }
+        // Only committed reviews may move the totals, and a recompute must see the write it was queued for
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add.run();
+            }
+        });
+    }
+
+    private static final class PendingRating {
+        private final boolean recompute; // a recompute reads every review, so it absorbs any deltas
+        private final int reviews;
+        private final int usefulness;
+        private final int difficulty;
+        private final int workload;
+        private final int interest;
+        private final int teacher;
+        private final long enqueuedAt;
+
+        private PendingRating(boolean recompute, int reviews, int usefulness, int difficulty,
+                              int workload, int interest, int teacher) {
+            this(recompute, reviews, usefulness, difficulty, workload, interest, teacher, System.currentTimeMillis());
+        }
+
+        private PendingRating(boolean recompute, int reviews, int usefulness, int difficulty,
+                              int workload, int interest, int teacher, long enqueuedAt) {
+            this.recompute = recompute;
+            this.reviews = reviews;
+            this.usefulness = usefulness;
+            this.difficulty = difficulty;
+            this.workload = workload;
+            this.interest = interest;
+            this.teacher = teacher;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        PendingRating merge(PendingRating next) {
+            long oldest = Math.min(enqueuedAt, next.enqueuedAt);
+            if (recompute || next.recompute) {
+                return new PendingRating(true, 0, 0, 0, 0, 0, 0, oldest);
+            }
+            return new PendingRating(false, reviews + next.reviews, usefulness + next.usefulness,
+                    difficulty + next.difficulty, workload + next.workload, interest + next.interest,
+                    teacher + next.teacher, oldest);
+        }
+
+        boolean isEmpty() { // e.g. a review created and deleted within one flush interval
+            return !recompute && reviews == 0 && usefulness == 0 && difficulty == 0
+                    && workload == 0 && interest == 0 && teacher == 0;
+        }
+    }
+}
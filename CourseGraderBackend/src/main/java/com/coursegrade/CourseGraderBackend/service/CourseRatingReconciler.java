@@ -0,0 +1,78 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compares every course's running rating totals against one GROUP BY over the reviews and fully
+ * recomputes the courses that drifted (manual SQL edits, rows from before the totals existed).
+ * Recomputes go through CourseRatingAggregator: a committed review whose delta is still queued shows up
+ * here as drift, and the queued recompute absorbs that delta instead of having it applied on top.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseRatingReconciler {
+
+    private final CourseRepository courseRepository;
+    private final ReviewRepository reviewRepository;
+    private final CourseRatingAggregator courseRatingAggregator;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.ratings.reconcile-cron:0 30 3 * * *}") // nightly, 3:30 AM
+    public int reconcile() {
+        Map<Long, long[]> actual = new HashMap<>();
+        for (Object[] row : reviewRepository.sumRatingsByCourse()) {
+            long[] totals = new long[6];
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = ((Number) row[i + 1]).longValue();
+            }
+            actual.put((Long) row[0], totals);
+        }
+        int repaired = 0;
+        List<Course> courses = courseRepository.findAll();
+        for (Course course : courses) {
+            long[] expected = actual.getOrDefault(course.getId(), new long[6]);
+            if (!matches(course, expected)) {
+                courseRatingAggregator.enqueueRecompute(course.getId());
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            log.warn("Rating reconciliation repaired {} of {} courses", repaired, courses.size());
+        }
+        else {
+            log.info("Rating reconciliation found no drift across {} courses", courses.size());
+        }
+        return repaired;
+    }
+
+    private boolean matches(Course course, long[] expected) {
+        return Objects.equals(toLong(course.getTotalReviews()), expected[0])
+                && Objects.equals(course.getUsefulnessRatingSum(), expected[1])
+                && Objects.equals(course.getDifficultyRatingSum(), expected[2])
+                && Objects.equals(course.getWorkloadRatingSum(), expected[3])
+                && Objects.equals(course.getInterestRatingSum(), expected[4])
+                && Objects.equals(course.getTeacherRatingSum(), expected[5]);
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+}
@@ -0,0 +1,420 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseFacetsDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Resident inverted index over the course catalog used by the course search.
+ * Every filter is a posting list (bitset of course positions), so a search is a handful of
+ * bitset intersections instead of a scan over every course entity.
+ * The index is rebuilt lazily after {@link #invalidate()} and patched in place when only ratings change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseSearchIndex {
+
+    private static final int RATING_BUCKETS = 6; // floor of the average overall rating, 0 to 5
+
+    private final CourseRepository courseRepository;
+    private volatile Snapshot snapshot;
+
+    public Page<Course> search(CourseSearchCriteria criteria, Pageable pageable) {
+        Snapshot current = current();
+        BitSet matches = current.filter(criteria);
+        int[] order = "byRelevance".equals(criteria.getSortBy()) && criteria.getRankedMatchIds() != null
+                ? current.rankedOrder(criteria.getRankedMatchIds())
+                : current.order(criteria.getSortBy());
+        int total = matches.cardinality();
+        int start = (int) pageable.getOffset();
+        if (start >= total) { // Error handling
+            return new PageImpl<>(new ArrayList<>(), pageable, total);
+        }
+        int end = Math.min(start + pageable.getPageSize(), total);
+        List<Course> content = new ArrayList<>(end - start);
+        int seen = 0;
+        if (order == null) { // no sort requested, keep catalog (id) order
+            for (int pos = matches.nextSetBit(0); pos >= 0 && seen < end; pos = matches.nextSetBit(pos + 1)) {
+                if (seen++ >= start) content.add(current.courses[pos]);
+            }
+        }
+        else {
+            for (int i = 0; i < order.length && seen < end; i++) {
+                int pos = order[i];
+                if (matches.get(pos) && seen++ >= start) content.add(current.courses[pos]);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Counts per college, department, hub requirement and rating bucket over the courses matching the
+     * criteria, gathered in one pass over the filtered set.
+     */
+    public CourseFacetsDTO facets(CourseSearchCriteria criteria) {
+        Snapshot current = current();
+        return current.facets(current.filter(criteria));
+    }
+
+    public int size() {
+        return current().courses.length;
+    }
+
+    /**
+     * Drops the index so the next search rebuilds it from the database. Called again after the
+     * surrounding transaction commits so a rebuild racing with the write can't keep stale rows.
+     */
+    public void invalidate() {
+        snapshot = null;
+        afterCommit(() -> snapshot = null);
+    }
+
+    /**
+     * Re-reads a single course once the current transaction commits and patches its rating in the index.
+     */
+    public void refreshCourse(Long courseId) {
+        afterCommit(() -> applyRefresh(courseId));
+    }
+
+    private void applyRefresh(Long courseId) {
+        if (snapshot == null) return; // nothing built yet, next search will load fresh data
+        Optional<Course> course = courseRepository.findWithHubRequirementsById(courseId);
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) return;
+            Snapshot updated = course.map(current::withCourse).orElse(null);
+            if (updated == null) { // course removed or its filters changed
+                snapshot = null;
+                return;
+            }
+            snapshot = updated;
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot == null) {
+                long startTime = System.currentTimeMillis();
+                snapshot = Snapshot.build(courseRepository.findAllWithHubRequirements());
+                log.info("Built course search index with {} courses in {} ms",
+                        snapshot.courses.length, System.currentTimeMillis() - startTime);
+            }
+            return snapshot;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Numeric aware course code ordering: leading digits compare as numbers ("99" before "111"),
+     * the remainder compares as text ("111" before "111A"), codes without digits sort last.
+     */
+    public static int compareCourseCodes(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        int aDigits = leadingDigits(a);
+        int bDigits = leadingDigits(b);
+        if (aDigits == 0 || bDigits == 0) {
+            if (aDigits != bDigits) return aDigits == 0 ? 1 : -1;
+            return a.compareTo(b);
+        }
+        String aNum = stripLeadingZeros(a.substring(0, aDigits));
+        String bNum = stripLeadingZeros(b.substring(0, bDigits));
+        if (aNum.length() != bNum.length()) return Integer.compare(aNum.length(), bNum.length());
+        int cmp = aNum.compareTo(bNum);
+        if (cmp != 0) return cmp;
+        return a.substring(aDigits).compareTo(b.substring(bDigits));
+    }
+
+    private static int leadingDigits(String code) {
+        int i = 0;
+        while (i < code.length() && Character.isDigit(code.charAt(i))) i++;
+        return i;
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') i++;
+        return digits.substring(i);
+    }
+
+    private static int ratingBucket(Double rating) {
+        if (rating == null) return -1;
+        return (int) Math.max(0, Math.min(RATING_BUCKETS - 1, Math.floor(rating)));
+    }
+
+    private static final class Snapshot {
+        private final Course[] courses; // ordered by id
+        private final Map<Long, Integer> positions;
+        private final Map<String, BitSet> byCollege;
+        private final Map<String, BitSet> byDepartment;
+        private final BitSet[] byHub; // indexed by HubRequirement ordinal
+        private final BitSet noPreReqs;
+        private final BitSet[] byRating;
+        private final String[] displayText; // upper-cased "CAS CS 111"
+        private final String[] titleText; // upper-cased title
+        private final int[] courseCodeOrder;
+        private volatile int[] ratingOrder; // computed on first use, ratings change between rebuilds
+        private volatile int[] reviewsOrder;
+
+        private Snapshot(Course[] courses, Map<Long, Integer> positions, Map<String, BitSet> byCollege,
+                         Map<String, BitSet> byDepartment, BitSet[] byHub, BitSet noPreReqs, BitSet[] byRating,
+                         String[] displayText, String[] titleText, int[] courseCodeOrder) {
+            this.courses = courses;
+            this.positions = positions;
+            this.byCollege = byCollege;
+            this.byDepartment = byDepartment;
+            this.byHub = byHub;
+            this.noPreReqs = noPreReqs;
+            this.byRating = byRating;
+            this.displayText = displayText;
+            this.titleText = titleText;
+            this.courseCodeOrder = courseCodeOrder;
+        }
+
+        static Snapshot build(List<Course> catalog) {
+            Course[] courses = catalog.toArray(new Course[0]);
+            Arrays.sort(courses, Comparator.comparing(Course::getId));
+            Map<Long, Integer> positions = new HashMap<>(courses.length * 2);
+            Map<String, BitSet> byCollege = new HashMap<>();
+            Map<String, BitSet> byDepartment = new HashMap<>();
+            BitSet[] byHub = new BitSet[HubRequirement.values().length];
+            for (int i = 0; i < byHub.length; i++) byHub[i] = new BitSet(courses.length);
+            BitSet noPreReqs = new BitSet(courses.length);
+            BitSet[] byRating = new BitSet[RATING_BUCKETS];
+            for (int i = 0; i < byRating.length; i++) byRating[i] = new BitSet(courses.length);
+            String[] displayText = new String[courses.length];
+            String[] titleText = new String[courses.length];
+
+            for (int pos = 0; pos < courses.length; pos++) {
+                Course course = courses[pos];
+                positions.put(course.getId(), pos);
+                byCollege.computeIfAbsent(course.getCollege(), k -> new BitSet()).set(pos);
+                byDepartment.computeIfAbsent(course.getDepartment(), k -> new BitSet()).set(pos);
+                if (course.getHubRequirements() != null) {
+                    for (HubRequirement hub : course.getHubRequirements()) {
+                        byHub[hub.ordinal()].set(pos);
+                    }
+                }
+                if (Boolean.TRUE.equals(course.getNoPreReqs())) noPreReqs.set(pos);
+                int bucket = ratingBucket(course.getAverageOverallRating());
+                if (bucket >= 0) byRating[bucket].set(pos);
+                displayText[pos] = course.courseDisplay().toUpperCase();
+                titleText[pos] = course.getTitle() == null ? "" : course.getTitle().toUpperCase();
+            }
+            int[] courseCodeOrder = sortedPositions(courses,
+                    (a, b) -> compareCourseCodes(a.getCourseCode(), b.getCourseCode()));
+            return new Snapshot(courses, positions, byCollege, byDepartment, byHub, noPreReqs, byRating,
+                    displayText, titleText, courseCodeOrder);
+        }
+
+        /**
+         * Copy of this snapshot with one course replaced. Only rating data may differ, anything that
+         * feeds another posting list returns null so the caller rebuilds instead.
+         */
+        Snapshot withCourse(Course course) {
+            Integer pos = positions.get(course.getId());
+            if (pos == null) return null;
+            Course old = courses[pos];
+            if (!Objects.equals(old.getCollege(), course.getCollege())
+                    || !Objects.equals(old.getDepartment(), course.getDepartment())
+                    || !Objects.equals(old.getCourseCode(), course.getCourseCode())
+                    || !Objects.equals(old.getTitle(), course.getTitle())
+                    || !Objects.equals(old.getNoPreReqs(), course.getNoPreReqs())
+                    || !Objects.equals(old.getHubRequirements(), course.getHubRequirements())) {
+                return null;
+            }
+            Course[] updatedCourses = courses.clone();
+            updatedCourses[pos] = course;
+            BitSet[] updatedRating = byRating.clone();
+            int oldBucket = ratingBucket(old.getAverageOverallRating());
+            int newBucket = ratingBucket(course.getAverageOverallRating());
+            if (oldBucket != newBucket) {
+                if (oldBucket >= 0) {
+                    updatedRating[oldBucket] = (BitSet) byRating[oldBucket].clone();
+                    updatedRating[oldBucket].clear(pos);
+                }
+                if (newBucket >= 0) {
+                    updatedRating[newBucket] = (BitSet) byRating[newBucket].clone();
+                    updatedRating[newBucket].set(pos);
+                }
+            }
+            return new Snapshot(updatedCourses, positions, byCollege, byDepartment, byHub, noPreReqs,
+                    updatedRating, displayText, titleText, courseCodeOrder);
+        }
+
+        BitSet filter(CourseSearchCriteria criteria) {
+            BitSet matches = new BitSet(courses.length);
+            matches.set(0, courses.length);
+            if (criteria.getColleges() != null && !criteria.getColleges().isEmpty()) {
+                matches.and(union(byCollege, criteria.getColleges()));
+            }
+            if (criteria.getHubRequirements() != null) {
+                for (HubRequirement hub : criteria.getHubRequirements()) {
+                    matches.and(byHub[hub.ordinal()]);
+                }
+            }
+            if (criteria.getDepartments() != null && !criteria.getDepartments().isEmpty()) {
+                matches.and(union(byDepartment, criteria.getDepartments()));
+            }
+            if (Boolean.TRUE.equals(criteria.getNoPreReqs())) {
+                matches.and(noPreReqs);
+            }
+            Double minRating = criteria.getMinRating();
+            if (minRating != null && minRating > 0) {
+                matches.and(atLeast(minRating));
+            }
+            String searchQuery = criteria.getSearchQuery();
+            if (criteria.getRankedMatchIds() != null) { // text matching already done by the database index
+                BitSet ranked = new BitSet(courses.length);
+                for (Long id : criteria.getRankedMatchIds()) {
+                    Integer pos = positions.get(id);
+                    if (pos != null) ranked.set(pos);
+                }
+                matches.and(ranked);
+            }
+            else if (searchQuery != null && !searchQuery.isEmpty()) {
+                String normalizedQuery = searchQuery.trim().toUpperCase();
+                for (int pos = matches.nextSetBit(0); pos >= 0; pos = matches.nextSetBit(pos + 1)) {
+                    if (!displayText[pos].contains(normalizedQuery) && !titleText[pos].contains(normalizedQuery)) {
+                        matches.clear(pos);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        CourseFacetsDTO facets(BitSet matches) {
+            Map<String, Long> colleges = new TreeMap<>();
+            Map<String, Long> departments = new TreeMap<>();
+            long[] hubs = new long[byHub.length];
+            long[] ratings = new long[RATING_BUCKETS];
+            for (int pos = matches.nextSetBit(0); pos >= 0; pos = matches.nextSetBit(pos + 1)) {
+                Course course = courses[pos];
+                if (course.getCollege() != null) colleges.merge(course.getCollege(), 1L, Long::sum);
+                if (course.getDepartment() != null) departments.merge(course.getDepartment(), 1L, Long::sum);
+                if (course.getHubRequirements() != null) {
+                    for (HubRequirement hub : course.getHubRequirements()) {
+                        hubs[hub.ordinal()]++;
+                    }
+                }
+                int bucket = ratingBucket(course.getAverageOverallRating());
+                if (bucket >= 0) ratings[bucket]++;
+            }
+            Map<String, Long> hubCounts = new LinkedHashMap<>();
+            for (HubRequirement hub : HubRequirement.values()) {
+                if (hubs[hub.ordinal()] > 0) hubCounts.put(hub.name(), hubs[hub.ordinal()]);
+            }
+            Map<String, Long> ratingCounts = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < RATING_BUCKETS; bucket++) {
+                if (ratings[bucket] > 0) ratingCounts.put(String.valueOf(bucket), ratings[bucket]);
+            }
+            return CourseFacetsDTO.builder()
+                    .colleges(colleges)
+                    .departments(departments)
+                    .hubRequirements(hubCounts)
+                    .ratings(ratingCounts)
+                    .build();
+        }
+
+        /**
+         * Positions in the requested sort order, or null to keep catalog order.
+         */
+        int[] order(String sortBy) {
+            if (sortBy == null) return null;
+            switch (sortBy) {
+                case "byCourseCode":
+                    return courseCodeOrder;
+                case "byRating":
+                    int[] rating = ratingOrder;
+                    if (rating == null) {
+                        rating = sortedPositions(courses, Comparator.comparing(Course::getAverageOverallRating,
+                                Comparator.nullsLast(Comparator.<Double>reverseOrder()))); // Descending order
+                        ratingOrder = rating;
+                    }
+                    return rating;
+                case "byReviews":
+                    int[] reviews = reviewsOrder;
+                    if (reviews == null) {
+                        reviews = sortedPositions(courses, Comparator.comparing(Course::getTotalReviews,
+                                Comparator.nullsLast(Comparator.<Integer>reverseOrder()))); // Descending
+                        reviewsOrder = reviews;
+                    }
+                    return reviews;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Positions of the ranked ids in rank order, ids not in this snapshot are skipped.
+         */
+        int[] rankedOrder(List<Long> rankedIds) {
+            int[] order = new int[rankedIds.size()];
+            int size = 0;
+            for (Long id : rankedIds) {
+                Integer pos = positions.get(id);
+                if (pos != null) order[size++] = pos;
+            }
+            return Arrays.copyOf(order, size);
+        }
+
+        private BitSet atLeast(double minRating) {
+            int bucket = ratingBucket(minRating);
+            BitSet result = new BitSet(courses.length);
+            for (int b = bucket + 1; b < RATING_BUCKETS; b++) {
+                result.or(byRating[b]);
+            }
+            BitSet boundary = byRating[bucket];
+            for (int pos = boundary.nextSetBit(0); pos >= 0; pos = boundary.nextSetBit(pos + 1)) {
+                if (courses[pos].getAverageOverallRating() >= minRating) result.set(pos);
+            }
+            return result;
+        }
+
+        private BitSet union(Map<String, BitSet> postings, Set<String> keys) {
+            BitSet result = new BitSet(courses.length);
+            for (String key : keys) {
+                BitSet posting = postings.get(key);
+                if (posting != null) result.or(posting);
+            }
+            return result;
+        }
+
+        private static int[] sortedPositions(Course[] courses, Comparator<Course> comparator) {
+            Integer[] boxed = new Integer[courses.length];
+            for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+            Arrays.sort(boxed, (a, b) -> comparator.compare(courses[a], courses[b])); // stable, ties keep id order
+            int[] order = new int[boxed.length];
+            for (int i = 0; i < boxed.length; i++) order[i] = boxed[i];
+            return order;
+        }
+    }
+}
@@ -1,27 +1,52 @@
 package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.*;
+import com.coursegrade.CourseGraderBackend.event.CourseChangedEvent;
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.HubRequirement;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.model.Vote;
+import com.coursegrade.CourseGraderBackend.model.VoteType;
 import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CourseService {
 
+    private static final int MIN_RANKED_QUERY_LENGTH = 3;
+    private static final int MAX_RANKED_MATCHES = 2000; // byRelevance returns the best matches only
+    public static final int REVIEW_PAGE_SIZE = 10;
+    public static final int MAX_REVIEW_PAGE_SIZE = 50;
+    private static final int VOTE_LOOKUP_CHUNK = 1000;
+
     private final CourseRepository courseRepository;
     private final ReviewRepository reviewRepository;
+    private final CourseSearchIndex courseSearchIndex;
+    private final VoteRepository voteRepository;
+    private final ApplicationEventPublisher eventPublisher; // course changes for RagIndexer
+
+    @Value("${app.search.backend:index}") // index or database
+    private String searchBackend;
 
     @Transactional
     public Course createCourse(String title, String college, String department, String courseCode, String baseUrl) {
@@ -45,7 +70,9 @@ public class CourseService {
         course.setAverageWorkloadRating(0.0);
         course.setAverageInterestRating(0.0);
         course.setAverageTeacherRating(0.0);
-        return courseRepository.save(course);
+        Course savedCourse = courseRepository.save(course);
+        courseSearchIndex.invalidate();
+        return savedCourse;
     }
 
     public Page<CourseDisplayDTO> getAllCoursesPaginated(Pageable pageable) {
@@ -63,16 +90,34 @@ public class CourseService {
             Set<String> colleges, Set<String> departments, Set<String> hubReqs, Boolean noPreReqs,
             Double minRating, String sortBy, String searchQuery, Pageable pageable
     ) {
-        List<Course> courses = new ArrayList<>(getAllCourses());
-        if (colleges != null && !colleges.isEmpty()) {
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                if (!colleges.contains(course.getCollege())) {
-                    iterator.remove();
-                }
-            }
-        }
+        CourseSearchCriteria criteria = searchCriteria(
+                colleges, departments, hubReqs, noPreReqs, minRating, sortBy, searchQuery);
+        return searchPage(criteria, pageable);
+    }
+
+    /**
+     * One page of results plus per value counts for the whole filtered set, so clients can label
+     * every filter option without a search per value.
+     */
+    public CourseSearchResultDTO searchCoursesFaceted(
+            Set<String> colleges, Set<String> departments, Set<String> hubReqs, Boolean noPreReqs,
+            Double minRating, String sortBy, String searchQuery, Pageable pageable
+    ) {
+        CourseSearchCriteria criteria = searchCriteria(
+                colleges, departments, hubReqs, noPreReqs, minRating, sortBy, searchQuery);
+        CourseFacetsDTO facets = "database".equals(searchBackend)
+                ? courseRepository.searchFacets(criteria)
+                : courseSearchIndex.facets(criteria);
+        return CourseSearchResultDTO.builder()
+                .courses(searchPage(criteria, pageable))
+                .facets(facets)
+                .build();
+    }
+
+    private CourseSearchCriteria searchCriteria(
+            Set<String> colleges, Set<String> departments, Set<String> hubReqs, Boolean noPreReqs,
+            Double minRating, String sortBy, String searchQuery
+    ) {
         HashSet<HubRequirement> hubRequirements = new HashSet<>(); // initialze the hashset
         if (hubReqs != null && !hubReqs.isEmpty()) {
             for (String req : hubReqs) {
@@ -84,98 +129,42 @@ public class CourseService {
                 }
             }
         }
-        if (!hubRequirements.isEmpty()) {
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                Set<HubRequirement> courseHubReqs = course.getHubRequirements();
-                if (courseHubReqs == null || courseHubReqs.isEmpty()) {
-                    iterator.remove();
-                    continue;
-                }
-                boolean hasAllRequiredHubs = true;
-                for (HubRequirement hub : hubRequirements) {
-                    if (!courseHubReqs.contains(hub)) {
-                        hasAllRequiredHubs = false;
-                        break;
-                    }
-                }
-                if (!hasAllRequiredHubs) {
-                    iterator.remove();
-                }
-            }
-        }
-        if (departments != null && !departments.isEmpty()) {
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                String courseDepart = course.getDepartment();
-                if (!departments.contains(courseDepart)) {
-                    iterator.remove();
-                }
-            }
-        }
-        if (noPreReqs != null && noPreReqs) {
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                if (course.getNoPreReqs() == null || !course.getNoPreReqs()) {
-                    iterator.remove();
-                }
-            }
-        }
-        if (minRating != null && minRating > 0) {
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                if (course.getAverageOverallRating() == null || course.getAverageOverallRating() < minRating) {
-                    iterator.remove();
-                }
-            }
-        }
-        // search query handling
-        if (searchQuery != null && !searchQuery.isEmpty()) {
-            String normalizedQuery = searchQuery.trim().toUpperCase();
-            Iterator<Course> iterator = courses.iterator();
-            while (iterator.hasNext()) {
-                Course course = iterator.next();
-                String courseName = course.courseDisplay().toUpperCase();
-                String courseTitle = course.getTitle().toUpperCase();
-                if (!courseName.contains(normalizedQuery) && !courseTitle.contains(normalizedQuery)) {
-                    iterator.remove();
-                }
-            }
-        }
-        List<CourseDisplayDTO> dtos = new ArrayList<>();
-        for (Course course : courses) {
-            CourseDisplayDTO dto = convertToDisplayDTO(course);
-            dtos.add(dto);
+        return CourseSearchCriteria.builder()
+                .colleges(colleges)
+                .departments(departments)
+                .hubRequirements(hubRequirements)
+                .noPreReqs(noPreReqs)
+                .minRating(minRating)
+                .sortBy(sortBy)
+                .searchQuery(searchQuery)
+                .rankedMatchIds(rankedMatches(sortBy, searchQuery))
+                .build();
+    }
+
+    private Page<CourseDisplayDTO> searchPage(CourseSearchCriteria criteria, Pageable pageable) {
+        Page<Course> coursePage = "database".equals(searchBackend)
+                ? courseRepository.searchCourses(criteria, pageable)
+                : courseSearchIndex.search(criteria, pageable);
+        return coursePage.map(this::convertToDisplayDTO); // DTOs only for the requested page
+    }
+
+    /**
+     * Ranked ids from the trigram index for byRelevance, or null to let the search match course code and
+     * title itself (other sorts, short queries, or databases without pg_trgm such as the H2 test profile).
+     */
+    private List<Long> rankedMatches(String sortBy, String searchQuery) {
+        if (!"byRelevance".equals(sortBy)) {
+            return null; // the other sorts keep code and title matching over every course
         }
-        if (sortBy != null) {
-            if (sortBy.equals("byCourseCode")) {
-                dtos.sort((a, b) -> {
-                    try {
-                        int aCode = Integer.parseInt(a.getCourseCode());
-                        int bCode = Integer.parseInt(b.getCourseCode());
-                        return Integer.compare(aCode, bCode);
-                    } catch (NumberFormatException e) {
-                        return a.getCourseCode().compareTo(b.getCourseCode());
-                    }
-                });
-            }
-            else if (sortBy.equals("byRating")) {
-                dtos.sort((a,b) -> Double.compare(b.getAverageOverallRating(), a.getAverageOverallRating())); // Descending order
-            }
-            else if (sortBy.equals("byReviews")) {
-                dtos.sort((a, b) -> Integer.compare(b.getNumReviews(), a.getNumReviews())); // Descending
-            }
+        if (searchQuery == null || searchQuery.trim().length() < MIN_RANKED_QUERY_LENGTH) {
+            return null; // trigrams need 3 characters, shorter prefixes are served by the in-memory scan
         }
-        int start = (int) pageable.getOffset();
-        int end = Math.min(pageable.getPageSize() + start, dtos.size());
-        if (start > dtos.size()) { // Error handling
-            return new PageImpl<>(new ArrayList<>(), pageable, dtos.size());
+        try {
+            return courseRepository.searchRankedCourseIds(searchQuery, MAX_RANKED_MATCHES);
+        } catch (DataAccessException e) {
+            log.warn("Ranked course search unavailable, falling back to scan: {}", e.getMessage());
+            return null;
         }
-        return new PageImpl<>(dtos.subList(start, end), pageable, dtos.size());
     }
 
     public List<String> getAllColleges() {
@@ -184,15 +173,9 @@ public class CourseService {
                 "STH", "WED");
     }
 
+    @Cacheable(CatalogCache.COLLEGE_DEPARTMENTS)
     public List<String> getDepartmentsByCollege(String college) {
-        List<Course> courses = getCoursesByCollege(college);
-        Set<String> departments = new HashSet<>();
-        for (Course course : courses) {
-            departments.add(course.getDepartment());
-        }
-        return departments.stream()
-                .sorted()
-                .toList();
+        return courseRepository.findDepartmentsByCollege(college);
     }
 
     public List<Course> findCoursesByHubReqs(Set<HubRequirement> requirements) {
@@ -239,7 +222,8 @@ public class CourseService {
     }
 
     @Transactional
-    public Course updateCourseWithHubReqsAndDescription(String baseUrl, List<String> hubNames, String description) {
+    public Course updateCourseWithHubReqsAndDescription(String baseUrl, List<String> hubNames, String description,
+                                                        CourseFetchState fetchState) {
         Optional<Course> courseOptional = courseRepository.findByBaseUrl(baseUrl);
         if (courseOptional.isEmpty()) {
             System.out.println("No course found with URL: " + baseUrl);
@@ -256,7 +240,40 @@ public class CourseService {
         else {
             course.setNoPreReqs(true);
         }
-        return courseRepository.save(course);
+        if (fetchState != null) {
+            course.setEtag(fetchState.getEtag());
+            course.setLastModified(fetchState.getLastModified());
+            course.setContentHash(fetchState.getContentHash());
+        }
+        Course savedCourse = courseRepository.save(course);
+        courseSearchIndex.invalidate();
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId()));
+        return savedCourse;
+    }
+
+    /**
+     * Fetch state of every scraped course keyed by its url, for conditional re-scrapes.
+     */
+    public Map<String, CourseFetchState> getFetchStates() {
+        Map<String, CourseFetchState> fetchStates = new HashMap<>();
+        for (Object[] row : courseRepository.findFetchStates()) {
+            CourseFetchState fetchState = CourseFetchState.builder()
+                    .baseUrl((String) row[0])
+                    .etag((String) row[1])
+                    .lastModified((String) row[2])
+                    .contentHash((String) row[3])
+                    .build();
+            fetchStates.put(fetchState.getBaseUrl(), fetchState);
+        }
+        return fetchStates;
+    }
+
+    /**
+     * Stores new validators for a page whose content did not change, without touching the course.
+     */
+    @Transactional
+    public void updateFetchValidators(String baseUrl, String etag, String lastModified) {
+        courseRepository.updateFetchValidators(baseUrl, etag, lastModified);
     }
 
     public Set<HubRequirement> convertHubNamesToEnum(List<String> hubNames) {
@@ -272,26 +289,20 @@ public class CourseService {
         return hubRequirements;
     }
 
+    /**
+     * Full recompute from every review of the course, also resets the running sums. Review writes use
+     * applyRatingDelta instead, this is for repairing drift.
+     */
     @Transactional
     public void updateCourseRatings(Long courseId) {
         Course course = getCourseById(courseId)
                 .orElseThrow(() -> new RuntimeException("Invalid course ID"));
         List<Review> reviews = reviewRepository.findByCourse(course);
-        course.setTotalReviews(reviews.size());
-        if (reviews.isEmpty()) {
-            course.setAverageWorkloadRating(0.0);
-            course.setAverageDifficultyRating(0.0);
-            course.setAverageUsefulnessRating(0.0);
-            course.setAverageInterestRating(0.0);
-            course.setAverageTeacherRating(0.0);
-            course.setAverageOverallRating(0.0);
-            return;
-        }
-        int totalWorkload = 0;
-        int totalDifficulty = 0;
-        int totalUsefulness = 0;
-        int totalInterest = 0;
-        int totalTeacher = 0;
+        long totalWorkload = 0;
+        long totalDifficulty = 0;
+        long totalUsefulness = 0;
+        long totalInterest = 0;
+        long totalTeacher = 0;
         for (Review review : reviews) {
             totalWorkload += review.getWorkloadRating();
             totalDifficulty += review.getDifficultyRating();
@@ -299,14 +310,71 @@ public class CourseService {
             totalInterest += review.getInterestRating();
             totalTeacher += review.getTeacherRating();
         }
-        course.setAverageWorkloadRating((double) totalWorkload / reviews.size());
-        course.setAverageDifficultyRating((double) totalDifficulty / reviews.size());
-        course.setAverageUsefulnessRating((double) totalUsefulness / reviews.size());
-        course.setAverageInterestRating((double) totalInterest / reviews.size());
-        course.setAverageTeacherRating((double) totalTeacher / reviews.size());
-        courseRepository.save(course); // So can calculate overall rating with the helper function
+        course.setTotalReviews(reviews.size());
+        course.setWorkloadRatingSum(totalWorkload);
+        course.setDifficultyRatingSum(totalDifficulty);
+        course.setUsefulnessRatingSum(totalUsefulness);
+        course.setInterestRatingSum(totalInterest);
+        course.setTeacherRatingSum(totalTeacher);
+        int count = Math.max(1, reviews.size()); // all sums are 0 without reviews
+        course.setAverageWorkloadRating((double) totalWorkload / count);
+        course.setAverageDifficultyRating((double) totalDifficulty / count);
+        course.setAverageUsefulnessRating((double) totalUsefulness / count);
+        course.setAverageInterestRating((double) totalInterest / count);
+        course.setAverageTeacherRating((double) totalTeacher / count);
         course.setAverageOverallRating(calculateOverallRating(course));
         courseRepository.save(course);
+        courseSearchIndex.refreshCourse(courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
+    }
+
+    /**
+     * Applies one review write to the course's totals with a single atomic UPDATE: reviews is +1 for a new
+     * review, -1 for a deleted one and 0 for an edit, the rating arguments are new minus old values.
+     */
+    @Transactional
+    public void applyRatingDelta(Long courseId, int reviews, int usefulness, int difficulty,
+                                 int workload, int interest, int teacher) {
+        int updated = courseRepository.applyRatingDelta(courseId, reviews, usefulness, difficulty, workload, interest, teacher);
+        if (updated == 0) {
+            throw new RuntimeException("Invalid course ID");
+        }
+        courseSearchIndex.refreshCourse(courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
+    }
+
+    /**
+     * One page of a course's reviews, newest first. Keyset paging on (createdAt, id): the cursor holds the
+     * last review of the previous page, so every page is an index range scan of size + 1 rows however deep
+     * the reader scrolls. Lives here rather than in ReviewService so convertToFullDTO can embed page one.
+     */
+    public ReviewPageDTO getReviewPage(Course course, User user, String teacher, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_REVIEW_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1); // one extra row tells us whether there is a next page
+        boolean byTeacher = teacher != null && !teacher.isEmpty();
+        List<Review> reviews;
+        if (cursor == null || cursor.isEmpty()) {
+            reviews = byTeacher
+                    ? reviewRepository.findPageByCourseAndTeacher(course, teacher, limit)
+                    : reviewRepository.findPageByCourse(course, limit);
+        }
+        else {
+            ReviewCursor after = ReviewCursor.decode(cursor);
+            reviews = byTeacher
+                    ? reviewRepository.findPageByCourseAndTeacherAfter(course, teacher, after.createdAt, after.id, limit)
+                    : reviewRepository.findPageByCourseAfter(course, after.createdAt, after.id, limit);
+        }
+        boolean hasMore = reviews.size() > pageSize;
+        if (hasMore) {
+            reviews = reviews.subList(0, pageSize);
+        }
+        List<ReviewResponseDTO> dtos = convertToResponseDTOs(reviews, user);
+        Review last = reviews.isEmpty() ? null : reviews.get(reviews.size() - 1);
+        return ReviewPageDTO.builder()
+                .reviews(dtos)
+                .nextCursor(hasMore ? ReviewCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     public CourseDisplayDTO convertToDisplayDTO(Course course) {
@@ -347,11 +415,7 @@ public class CourseService {
             hubReqDTO.setName(hubReq.getCode());
             hubs.add(hubReqDTO);
         }
-        List<Review> reviews = reviewRepository.findByCourseOrderByCreatedAtDesc(course);
-        List<ReviewResponseDTO> reviewDTOs = new ArrayList<>();
-        for (Review review : reviews) {
-            reviewDTOs.add(convertToResponseDTO(review, user));
-        }
+        ReviewPageDTO firstReviews = getReviewPage(course, user, null, null, REVIEW_PAGE_SIZE);
 
         return CourseDTO.builder()
                 .id(course.getId().toString())
@@ -370,6 +434,7 @@ public class CourseService {
                 .averageTeacherRating(course.getAverageTeacherRating())
                 .hubRequirements(hubs)
                 .userReviewed(userReviewed)
+                .reviews(firstReviews)
                 .build();
 
     }
@@ -397,6 +462,8 @@ public class CourseService {
         dto.setAssignmentTypes(review.getAssignmentTypes());
         dto.setAttendanceRequired(review.getAttendanceRequired());
         dto.setCreatedAt(review.getCreatedAt());
+        dto.setUpvoteCount(review.getUpvoteCount());
+        dto.setDownvoteCount(review.getDownvoteCount());
         if (currentUser == null) { // when the user is not logged in
             dto.setOwner(false);
         }
@@ -406,4 +473,60 @@ public class CourseService {
         return dto;
     }
 
+    /**
+     * Converts a list of reviews and fills in the current user's vote on each with a single
+     * IN query, instead of one vote lookup per review.
+     */
+    public List<ReviewResponseDTO> convertToResponseDTOs(List<Review> reviews, User currentUser) {
+        Map<Long, VoteType> userVotes = new HashMap<>();
+        if (currentUser != null) {
+            // chunked so the admin "all reviews" list stays under the driver's bind parameter limit
+            for (int start = 0; start < reviews.size(); start += VOTE_LOOKUP_CHUNK) {
+                List<Long> reviewIds = new ArrayList<>();
+                for (Review review : reviews.subList(start, Math.min(start + VOTE_LOOKUP_CHUNK, reviews.size()))) {
+                    reviewIds.add(review.getId());
+                }
+                for (Vote vote : voteRepository.findByUserAndReviewIdIn(currentUser, reviewIds)) {
+                    userVotes.put(vote.getReview().getId(), vote.getVoteType());
+                }
+            }
+        }
+        List<ReviewResponseDTO> dtos = new ArrayList<>(reviews.size());
+        for (Review review : reviews) {
+            ReviewResponseDTO dto = convertToResponseDTO(review, currentUser);
+            dto.setUserVote(userVotes.get(review.getId()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+
+    /**
+     * Opaque to clients: base64 of "createdAt|id" of the last review on a page.
+     */
+    static final class ReviewCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private ReviewCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        static String encode(LocalDateTime createdAt, Long id) {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ReviewCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new ReviewCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new RuntimeException("Invalid review cursor");
+            }
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseSuggestionDTO;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Typeahead over course codes and titles. Every trie node keeps the ids of its best courses
+ * (most reviewed first), so a suggestion is a walk down the query's characters with no sorting
+ * and no database access. Rebuilt from the catalog at startup and after the scraper adds courses.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseSuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_DEPTH = 24; // "cas cs 111" keys and whole titles
+    private static final int MAX_WORD_DEPTH = 12; // keys starting mid-title, e.g. "science"
+    private static final int MIN_WORD_LENGTH = 3; // no keys for "to", "of", "i"
+
+    private final CourseRepository courseRepository;
+    private volatile Trie trie;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Trie built = Trie.build(courseRepository.findAll());
+        trie = built;
+        log.info("Course suggestion index built: {} courses, {} nodes in {} ms",
+                built.suggestions.length, built.nodeCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Up to limit courses whose code ("cs 1", "cas cs 1", "cs1") or title, or any title word,
+     * starts with the query. Empty until the index has been built.
+     */
+    public List<CourseSuggestionDTO> suggest(String query, int limit) {
+        Trie current = trie;
+        String key = normalize(query);
+        if (current == null || key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Node node = current.root;
+        int depth = Math.min(key.length(), MAX_KEY_DEPTH);
+        int matched = 0;
+        while (matched < depth) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) break;
+            node = child;
+            matched++;
+        }
+        boolean partial = matched < key.length();
+        if (partial && !node.truncated) {
+            return List.of(); // no key continues past here, so nothing starts with the whole query
+        }
+        List<CourseSuggestionDTO> result = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && result.size() < limit; i++) {
+            int rank = node.top[i];
+            // the rest of the query is past where keys were cut off, check it against the title itself
+            if (partial && !titleMatches(current.titles[rank], key)) continue;
+            result.add(current.suggestions[rank]);
+        }
+        return result;
+    }
+
+    private static boolean titleMatches(String title, String key) {
+        return title.startsWith(key) || title.contains(" " + key);
+    }
+
+    /**
+     * Lower case, punctuation as spaces, single spaces, so "CAS CS-111:" and "cas cs 111" are the same key.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true; // drops leading spaces
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            }
+            else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') sb.setLength(end - 1);
+        return sb.toString();
+    }
+
+    private static final class Trie {
+        private final Node root = new Node();
+        private final CourseSuggestionDTO[] suggestions; // by rank
+        private final String[] titles; // normalized, by rank
+        private int nodeCount = 1;
+
+        private Trie(CourseSuggestionDTO[] suggestions, String[] titles) {
+            this.suggestions = suggestions;
+            this.titles = titles;
+        }
+
+        static Trie build(List<Course> catalog) {
+            List<Course> ranked = new ArrayList<>(catalog);
+            ranked.sort(Comparator.comparing((Course c) -> c.getTotalReviews() == null ? 0 : c.getTotalReviews())
+                    .reversed() // most reviewed first
+                    .thenComparing(Course::getCourseCode, Comparator.nullsLast(CourseSearchIndex::compareCourseCodes))
+                    .thenComparing(Course::getId));
+            CourseSuggestionDTO[] suggestions = new CourseSuggestionDTO[ranked.size()];
+            String[] titles = new String[ranked.size()];
+            Trie trie = new Trie(suggestions, titles);
+            // Inserting in rank order means each node's list is just the first MAX_SUGGESTIONS courses to reach it
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                Course course = ranked.get(rank);
+                suggestions[rank] = CourseSuggestionDTO.builder()
+                        .id(course.getId().toString())
+                        .display(course.courseDisplay())
+                        .title(course.getTitle())
+                        .build();
+                trie.insert(normalize(course.courseDisplay()), rank, MAX_KEY_DEPTH);
+                trie.insert(normalize(course.getDepartment() + " " + course.getCourseCode()), rank, MAX_KEY_DEPTH);
+                trie.insert(normalize(course.getDepartment() + course.getCourseCode()), rank, MAX_KEY_DEPTH);
+                String title = normalize(course.getTitle());
+                titles[rank] = title;
+                trie.insert(title, rank, MAX_KEY_DEPTH);
+                for (int i = title.indexOf(' '); i >= 0; i = title.indexOf(' ', i + 1)) {
+                    int next = title.indexOf(' ', i + 1);
+                    int wordLength = (next < 0 ? title.length() : next) - (i + 1);
+                    if (wordLength >= MIN_WORD_LENGTH) {
+                        trie.insert(title.substring(i + 1), rank, MAX_WORD_DEPTH);
+                    }
+                }
+            }
+            return trie;
+        }
+
+        private void insert(String key, int rank, int maxDepth) {
+            Node node = root;
+            int depth = Math.min(key.length(), maxDepth);
+            for (int i = 0; i < depth; i++) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    child = node.addChild(key.charAt(i));
+                    nodeCount++;
+                }
+                node = child;
+                node.offer(rank);
+            }
+            if (key.length() > depth) node.truncated = true;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_RANKS = new int[0];
+
+        // sorted labels with parallel children, far smaller than a map per node
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int[] top = NO_RANKS;
+        private boolean truncated; // some key was cut off at this node
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char c) {
+            int index = -(Arrays.binarySearch(labels, c) + 1);
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = c;
+            newChildren[index] = new Node();
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[index];
+        }
+
+        boolean offer(int rank) {
+            if (top.length >= MAX_SUGGESTIONS) return false;
+            if (top.length > 0 && top[top.length - 1] == rank) return false; // same course via another key
+            top = Arrays.copyOf(top, top.length + 1);
+            top[top.length - 1] = rank;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embeds text segments and writes them to the vector store in batches. Each batch is one embedAll call
+ * and one addAll insert, and batches run on a pool with a worker per core, so while one worker waits on
+ * pgvector the others keep the CPU busy with inference. A batch that fails is logged and counted, the
+ * rest of the ingestion carries on.
+ */
+@Slf4j
+@Service
+public class EmbeddingPipeline {
+
+    @Value("${app.rag.embed-batch-size:64}")
+    private int batchSize;
+
+    @Value("${app.rag.embed-workers:0}") // 0 means one per core
+    private int workers;
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService pool;
+    private Counter embedded;
+    private Counter failed;
+    private Timer batchTimer;
+
+    public EmbeddingPipeline(EmbeddingModel embeddingModel, EmbeddingStore<TextSegment> embeddingStore,
+                             MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "embedder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        embedded = Counter.builder("rag.segments.embedded")
+                .description("Segments embedded and written to the vector store")
+                .register(meterRegistry);
+        failed = Counter.builder("rag.segments.failed")
+                .description("Segments dropped because their batch failed to embed or write")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("rag.embed.batch")
+                .description("Time to embed one batch and write it to the vector store")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Embeds and stores the segments, waiting until every batch is done. Returns the segments that were
+     * stored, i.e. all of them except those in failed batches.
+     */
+    public List<TextSegment> ingest(List<TextSegment> segments) {
+        List<Future<List<TextSegment>>> futures = new ArrayList<>();
+        for (int from = 0; from < segments.size(); from += batchSize) {
+            List<TextSegment> batch = segments.subList(from, Math.min(from + batchSize, segments.size()));
+            futures.add(pool.submit(() -> embedBatch(batch)));
+        }
+        List<TextSegment> stored = new ArrayList<>(segments.size());
+        try {
+            for (Future<List<TextSegment>> future : futures) {
+                stored.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) { // batches catch their own exceptions, only errors get here
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Embedding batch failed", e.getCause());
+        }
+        return stored;
+    }
+
+    private List<TextSegment> embedBatch(List<TextSegment> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            List<Embedding> embeddings = embeddingModel.embedAll(batch).content();
+            embeddingStore.addAll(embeddings, batch);
+            embedded.increment(batch.size());
+            return batch;
+        } catch (RuntimeException e) {
+            log.error("Failed to embed a batch of {} segments", batch.size(), e);
+            failed.increment(batch.size());
+            return List.of();
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+
+public class LivePageFetcher implements PageFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+    private static final int TIMEOUT_MS = 120000; // 2 minute timeout
+
+    @Override
+    public Response fetch(String url, String etag, String lastModified) throws IOException {
+        Connection connection = Jsoup.connect(url)
+                .userAgent(USER_AGENT)
+                .timeout(TIMEOUT_MS);
+        if (etag != null) connection.header("If-None-Match", etag);
+        if (lastModified != null) connection.header("If-Modified-Since", lastModified);
+        Connection.Response response = connection.execute();
+        return new Response(response.statusCode(), response.body(),
+                response.header("ETag"), response.header("Last-Modified"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk store of scraped pages for offline scraper runs. One gzip file per url, named by the SHA-256
+ * of the url, holding HTTP style headers (URL, ETag, Last-Modified), a blank line and the page body.
+ * Files are written to a temp file and moved into place, so concurrent workers and an interrupted
+ * recording never leave a half written page behind.
+ */
+public class PageArchive {
+
+    private static final String URL_HEADER = "URL: ";
+    private static final String ETAG_HEADER = "ETag: ";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified: ";
+
+    private final Path directory;
+
+    public PageArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public void save(String url, PageFetcher.Response response) throws IOException {
+        Files.createDirectories(directory);
+        Path target = pathFor(url);
+        Path temp = Files.createTempFile(directory, "page", ".tmp");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+            writer.write(URL_HEADER + url + "\n");
+            if (response.etag() != null) writer.write(ETAG_HEADER + response.etag() + "\n");
+            if (response.lastModified() != null) writer.write(LAST_MODIFIED_HEADER + response.lastModified() + "\n");
+            writer.write("\n");
+            writer.write(response.body());
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The saved page as a 200 response, or empty when the url was never recorded.
+     */
+    public Optional<PageFetcher.Response> load(String url) throws IOException {
+        Path path = pathFor(url);
+        if (!Files.exists(path)) return Optional.empty();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            String etag = null;
+            String lastModified = null;
+            String line;
+            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                if (line.startsWith(ETAG_HEADER)) etag = line.substring(ETAG_HEADER.length());
+                else if (line.startsWith(LAST_MODIFIED_HEADER)) lastModified = line.substring(LAST_MODIFIED_HEADER.length());
+            }
+            StringWriter body = new StringWriter();
+            reader.transferTo(body);
+            return Optional.of(new PageFetcher.Response(200, body.toString(), etag, lastModified));
+        }
+    }
+
+    /**
+     * Answers a conditional request from a full saved response the way the server would:
+     * 304 when the caller's validators still match.
+     */
+    static PageFetcher.Response conditional(PageFetcher.Response page, String etag, String lastModified) {
+        boolean etagMatches = etag != null && etag.equals(page.etag());
+        boolean lastModifiedMatches = etag == null && lastModified != null && lastModified.equals(page.lastModified());
+        if (etagMatches || lastModifiedMatches) {
+            return new PageFetcher.Response(304, "", page.etag(), page.lastModified());
+        }
+        return page;
+    }
+
+    private Path pathFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + ".html.gz");
+        } catch (NoSuchAlgorithmException e) { // every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import java.io.IOException;
+
+/**
+ * Where the scraper gets its pages from: bu.edu (LivePageFetcher), bu.edu while saving every page
+ * (RecordingPageFetcher) or a saved archive with no network at all (ReplayPageFetcher).
+ * Chosen with app.scraper.fetch-mode, see PageFetcherConfig.
+ */
+public interface PageFetcher {
+
+    /**
+     * Fetches the raw page, sending the validators (either may be null) as a conditional request.
+     * Failed requests throw, HttpStatusException for error statuses.
+     */
+    Response fetch(String url, String etag, String lastModified) throws IOException;
+
+    /**
+     * Whether requests go to a real host and must respect its rate limit.
+     */
+    default boolean isRemote() {
+        return true;
+    }
+
+    /**
+     * statusCode is 200 or 304 (body empty), etag and lastModified are null when the server sent none.
+     */
+    record Response(int statusCode, String body, String etag, String lastModified) {
+    }
+}
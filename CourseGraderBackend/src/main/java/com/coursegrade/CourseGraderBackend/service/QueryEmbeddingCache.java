@@ -0,0 +1,111 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vector search for advisor questions, with the question embedding and the matches cached by normalized
+ * question text so repeat questions skip both the ONNX inference and the pgvector search. Embeddings only
+ * depend on the model and are kept until evicted by size. Matches depend on the index, so every write to
+ * the embeddings table (RagIngestionService) calls invalidate. Invalidation is per instance, other
+ * backends see index changes once their matches expire after app.rag.query-cache-ttl-ms.
+ * Hit and miss counts are published as the cache.gets metrics.
+ */
+@Service
+public class QueryEmbeddingCache {
+
+    @Value("${app.rag.query-cache-size:1000}")
+    private int maxEntries;
+
+    @Value("${app.rag.query-cache-ttl-ms:600000}")
+    private long ttlMillis;
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong generation = new AtomicLong(); // bumped on every index change
+    private Cache<String, Embedding> embeddings;
+    private Cache<SearchKey, CachedMatches> matches;
+
+    public QueryEmbeddingCache(EmbeddingModel embeddingModel, EmbeddingStore<TextSegment> embeddingStore,
+                               MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        embeddings = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        matches = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, embeddings, "ragQueryEmbeddings");
+        CaffeineCacheMetrics.monitor(meterRegistry, matches, "ragQueryMatches");
+    }
+
+    /**
+     * The stored segments closest to the question, at most maxResults of them scoring at least minScore.
+     */
+    public List<EmbeddingMatch<TextSegment>> search(String question, int maxResults, double minScore) {
+        String normalized = normalize(question);
+        SearchKey key = new SearchKey(normalized, maxResults, minScore);
+        long current = generation.get();
+        CachedMatches cached = matches.getIfPresent(key);
+        if (cached != null && cached.generation() == current) {
+            return cached.matches();
+        }
+        Embedding questionEmbedding = embeddings.get(normalized, text -> embeddingModel.embed(text).content());
+        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
+                .queryEmbedding(questionEmbedding)
+                .maxResults(maxResults)
+                .minScore(minScore)
+                .build();
+        List<EmbeddingMatch<TextSegment>> found = List.copyOf(embeddingStore.search(searchRequest).matches());
+        // tagged with the generation the search started in, so a result racing an invalidate is never served
+        matches.put(key, new CachedMatches(current, found));
+        return found;
+    }
+
+    /**
+     * Call after segments were added to or deleted from the embeddings table.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        matches.invalidateAll();
+    }
+
+    /**
+     * Case and whitespace only, the MiniLM tokenizer lowercases anyway so the embedding does not change.
+     */
+    static String normalize(String question) {
+        return question.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchKey(String question, int maxResults, double minScore) {
+    }
+
+    private record CachedMatches(long generation, List<EmbeddingMatch<TextSegment>> matches) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.event.CourseChangedEvent;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the RAG index fresh between manual syncs. Course and review changes arrive as events once their
+ * transaction commits, are coalesced per course or review, and a scheduled flush re-indexes exactly those
+ * segments, so the index trails the database by about one app.rag.index-interval-ms. Unchanged text costs
+ * a lookup and no embedding. A failed flush puts its ids back for the next run.
+ */
+@Slf4j
+@Service
+public class RagIndexer {
+
+    private static final int FLUSH_CHUNK = 500;
+
+    private final RagIngestionService ragIngestionService;
+    private final CourseRepository courseRepository;
+    private final ReviewRepository reviewRepository;
+    private final ConcurrentHashMap<Long, Long> pendingCourses = new ConcurrentHashMap<>(); // id -> first change, millis
+    private final ConcurrentHashMap<Long, Long> pendingReviews = new ConcurrentHashMap<>();
+    private final Counter received;
+    private final Counter indexed;
+
+    public RagIndexer(RagIngestionService ragIngestionService, CourseRepository courseRepository,
+                      ReviewRepository reviewRepository, MeterRegistry meterRegistry) {
+        this.ragIngestionService = ragIngestionService;
+        this.courseRepository = courseRepository;
+        this.reviewRepository = reviewRepository;
+        Gauge.builder("rag.index.queue.depth", this, RagIndexer::queueDepth)
+                .description("Courses and reviews waiting to be re-indexed")
+                .register(meterRegistry);
+        Gauge.builder("rag.index.lag", this, RagIndexer::lagSeconds)
+                .description("Age of the oldest change not yet in the RAG index")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.received = Counter.builder("rag.index.events")
+                .description("Course and review change events received")
+                .register(meterRegistry);
+        this.indexed = Counter.builder("rag.index.reindexed")
+                .description("Courses and reviews re-indexed after a change")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        enqueue(pendingCourses, event.courseId(), System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        enqueue(pendingReviews, event.reviewId(), System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.rag.index-interval-ms:5000}")
+    public void flush() {
+        Map<Long, Long> courses = drain(pendingCourses);
+        for (List<Long> chunk : chunks(courses)) {
+            try {
+                ragIngestionService.reindexCourses(chunk, courseRepository.findAllWithHubRequirementsByIdIn(chunk));
+                indexed.increment(chunk.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not re-index {} courses, retrying on the next flush: {}", chunk.size(), e.getMessage());
+                chunk.forEach(id -> pendingCourses.merge(id, courses.get(id), Math::min));
+            }
+        }
+        Map<Long, Long> reviews = drain(pendingReviews);
+        for (List<Long> chunk : chunks(reviews)) {
+            try {
+                ragIngestionService.reindexReviews(chunk, reviewRepository.findAllById(chunk));
+                indexed.increment(chunk.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not re-index {} reviews, retrying on the next flush: {}", chunk.size(), e.getMessage());
+                chunk.forEach(id -> pendingReviews.merge(id, reviews.get(id), Math::min));
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return pendingCourses.size() + pendingReviews.size();
+    }
+
+    double lagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (Long enqueuedAt : pendingCourses.values()) oldest = Math.min(oldest, enqueuedAt);
+        for (Long enqueuedAt : pendingReviews.values()) oldest = Math.min(oldest, enqueuedAt);
+        return oldest == Long.MAX_VALUE ? 0.0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private void enqueue(ConcurrentHashMap<Long, Long> pending, Long id, long now) {
+        if (id == null) return;
+        pending.merge(id, now, Math::min); // lag counts from the first change not yet indexed
+        received.increment();
+    }
+
+    private static Map<Long, Long> drain(ConcurrentHashMap<Long, Long> pending) {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long id : pending.keySet()) {
+            Long enqueuedAt = pending.remove(id);
+            if (enqueuedAt != null) batch.put(id, enqueuedAt);
+        }
+        return batch;
+    }
+
+    private static List<List<Long>> chunks(Map<Long, Long> batch) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += FLUSH_CHUNK) {
+            chunks.add(ids.subList(from, Math.min(from + FLUSH_CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -4,17 +4,16 @@ import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.HubRequirement;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import dev.langchain4j.data.document.Metadata;
-import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,64 +21,237 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RagIngestionService {
 
-    private final EmbeddingModel embeddingModel;
-    private final EmbeddingStore<TextSegment> embeddingStore;
+    public static final int MIN_NET_REVIEW_SCORE = -5; // reviews voted below this are left out of the index
+    public static final String COURSE_TYPE = "COURSE";
+    public static final String REVIEW_TYPE = "REVIEW";
+    static final String SEGMENT_KEY = "segment_key"; // metadata: type and id of the course or review
+    static final String CONTENT_HASH = "content_hash"; // metadata: SHA-256 of the segment text
+    static final String STORED_SEGMENTS_SQL = "SELECT embedding_id, metadata ->> 'segment_key', metadata ->> 'content_hash' " +
+            "FROM embeddings WHERE metadata ->> 'type' = ?";
+    static final String STORED_SEGMENTS_BY_KEY_SQL = "SELECT embedding_id, metadata ->> 'segment_key', metadata ->> 'content_hash' " +
+            "FROM embeddings WHERE metadata ->> 'segment_key' IN (%s)";
+    static final String DELETE_SEGMENT_SQL = "DELETE FROM embeddings WHERE embedding_id = ?";
+    private static final int KEY_LOOKUP_CHUNK = 500;
+
+    private final EmbeddingPipeline embeddingPipeline;
+    private final QueryEmbeddingCache queryEmbeddingCache;
     private final JdbcTemplate jdbcTemplate; // Allows running fast SQL deletes
 
-    @Transactional
+    /**
+     * Brings the COURSE embeddings in line with the given courses. Only courses whose segment text
+     * changed since the last sync are re-embedded, and only segments of courses that are gone are deleted.
+     */
     public void ingestCourses(List<Course> courses) {
-        log.info("Clearing old COURSE embeddings...");
-        jdbcTemplate.update("DELETE FROM embeddings WHERE metadata ->> 'type' = ?", "COURSE");
-        log.info("Starting ingestion of {} courses...", courses.size());
-
-        for (Course course : courses) {
-            try {
-                String content = buildCourseContent(course);
-                Metadata metadata = new Metadata();
-                metadata.put("type", "COURSE");
-                metadata.put("course_id", String.valueOf(course.getId()));
-                metadata.put("code", course.getCourseCode());
-                metadata.put("department", course.getDepartment());
-                metadata.put("college", course.getCollege());
-                metadata.put("overall rating", course.getAverageOverallRating());
-                metadata.put("workload rating", course.getAverageWorkloadRating());
-                metadata.put("usefulness rating", course.getAverageUsefulnessRating());
-                metadata.put("interest rating", course.getAverageInterestRating());
-                metadata.put("professor rating", course.getAverageTeacherRating());
-                metadata.put("difficulty rating", course.getAverageDifficultyRating());
-                metadata.put("hubs", collectHubs(course));
-                TextSegment segment = TextSegment.from(content, metadata);
-                Embedding embedding = embeddingModel.embed(segment).content();
-                embeddingStore.add(embedding, segment);
-            } catch (Exception e) {
-                log.error("Failed to ingest course: {}", course.getCourseCode(), e);
-            }
-        }
-        log.info("Finished ingesting courses!");
+        log.info("Starting sync of {} courses...", courses.size());
+        Sync sync = beginSync(COURSE_TYPE);
+        sync.addCourses(courses);
+        sync.finish();
     }
 
-    @Transactional
+    /**
+     * Same as ingestCourses for REVIEW embeddings. Reviews voted below the threshold count as removed.
+     */
     public void ingestReviews(List<Review> reviews) {
-        log.info("Clearing old REVIEW embeddings...");
-        jdbcTemplate.update("DELETE FROM embeddings WHERE metadata ->> 'type' = ?", "REVIEW");
-        log.info("Starting ingestion of {} reviews...", reviews.size());
-        for (Review review : reviews) {
-            try {
-                if (review.getNetReviewScore() < -5) {
+        log.info("Starting sync of {} reviews...", reviews.size());
+        Sync sync = beginSync(REVIEW_TYPE);
+        sync.addReviews(reviews);
+        sync.finish();
+    }
+
+    /**
+     * Starts a full sync of COURSE or REVIEW embeddings that is fed in chunks, see Sync.
+     */
+    public Sync beginSync(String type) {
+        return new Sync(type, storedSegments(type));
+    }
+
+    /**
+     * Re-indexes only the given courses, e.g. after they changed. Ids with no course in the list lose
+     * their segment. Courses need their hub requirements loaded.
+     */
+    public void reindexCourses(Collection<Long> courseIds, List<Course> courses) {
+        Sync sync = new Sync(COURSE_TYPE, storedSegments(segmentKeys(COURSE_TYPE, courseIds)));
+        sync.addCourses(courses);
+        sync.finish();
+    }
+
+    /**
+     * Re-indexes only the given reviews. Ids with no review in the list, or whose review is voted below
+     * the threshold, lose their segment.
+     */
+    public void reindexReviews(Collection<Long> reviewIds, List<Review> reviews) {
+        Sync sync = new Sync(REVIEW_TYPE, storedSegments(segmentKeys(REVIEW_TYPE, reviewIds)));
+        sync.addReviews(reviews);
+        sync.finish();
+    }
+
+    public static boolean isIndexed(Review review) {
+        return review.getNetReviewScore() >= MIN_NET_REVIEW_SCORE;
+    }
+
+    /**
+     * True when a vote change from one net score to the other adds the review to the index or drops it.
+     */
+    public static boolean crossesIndexThreshold(int netScoreBefore, int netScoreAfter) {
+        return (netScoreBefore >= MIN_NET_REVIEW_SCORE) != (netScoreAfter >= MIN_NET_REVIEW_SCORE);
+    }
+
+    /**
+     * Diffs segments against the stored rows by segment key and content hash, one chunk at a time so
+     * the source rows never have to be in memory together. New and changed segments are embedded and
+     * only then are the rows they replace deleted, so a changed segment never drops out of search.
+     * finish() deletes the rows of keys no chunk contained, duplicates and rows from before segment keys
+     * existed. A sync that is abandoned before finish() deletes none of those.
+     */
+    public final class Sync {
+        private final String type;
+        private final Map<String, StoredSegment> stored = new HashMap<>(); // key -> row not yet matched
+        private final List<String> leftoverIds = new ArrayList<>();
+        private int unchanged;
+        private int embedded;
+        private int failed;
+        private int deleted;
+
+        private Sync(String type, List<StoredSegment> storedRows) {
+            this.type = type;
+            for (StoredSegment row : storedRows) {
+                if (row.key() == null || stored.putIfAbsent(row.key(), row) != null) {
+                    leftoverIds.add(row.id());
+                }
+            }
+        }
+
+        /**
+         * Syncs a chunk of courses, which need their hub requirements loaded. Returns how many failed.
+         */
+        public int addCourses(List<Course> courses) {
+            List<TextSegment> segments = new ArrayList<>(courses.size());
+            int failures = 0;
+            for (Course course : courses) {
+                try {
+                    segments.add(courseSegment(course));
+                } catch (Exception e) {
+                    log.error("Failed to ingest course: {}", course.getCourseCode(), e);
+                    failures++;
+                }
+            }
+            return add(segments, failures);
+        }
+
+        /**
+         * Syncs a chunk of reviews, reviews voted below the threshold are left for finish() to remove.
+         * Returns how many failed.
+         */
+        public int addReviews(List<Review> reviews) {
+            List<TextSegment> segments = new ArrayList<>(reviews.size());
+            int failures = 0;
+            for (Review review : reviews) {
+                try {
+                    if (isIndexed(review)) {
+                        segments.add(reviewSegment(review));
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to ingest review ID: {}", review.getId(), e);
+                    failures++;
+                }
+            }
+            return add(segments, failures);
+        }
+
+        public void finish() {
+            stored.values().forEach(row -> leftoverIds.add(row.id()));
+            stored.clear();
+            deleteSegments(leftoverIds);
+            deleted += leftoverIds.size();
+            leftoverIds.clear();
+            log.info("Finished syncing {} embeddings! {} unchanged, {} embedded, {} failed, {} rows deleted",
+                    type, unchanged, embedded, failed, deleted);
+        }
+
+        private int add(List<TextSegment> segments, int failures) {
+            List<TextSegment> changed = new ArrayList<>();
+            Map<String, String> replacedIds = new HashMap<>(); // key -> row the new segment replaces
+            for (TextSegment segment : segments) {
+                String key = segment.metadata().getString(SEGMENT_KEY);
+                StoredSegment current = stored.remove(key);
+                if (current != null && segment.metadata().getString(CONTENT_HASH).equals(current.contentHash())) {
+                    unchanged++;
                     continue;
                 }
-                String content = buildReviewContent(review);
-                Metadata metadata = new Metadata();
-                metadata.put("type", "REVIEW");
-                metadata.put("course_id", String.valueOf(review.getCourse().getId()));
-                TextSegment segment = TextSegment.from(content, metadata);
-                Embedding embedding = embeddingModel.embed(segment).content();
-                embeddingStore.add(embedding, segment);
-            } catch (Exception e) {
-                log.error("Failed to ingest review ID: {}", review.getId(), e);
+                changed.add(segment);
+                if (current != null) replacedIds.put(key, current.id());
+            }
+            List<TextSegment> written = embeddingPipeline.ingest(changed);
+            if (!written.isEmpty()) queryEmbeddingCache.invalidate();
+            List<String> staleIds = new ArrayList<>();
+            for (TextSegment segment : written) { // a segment that failed keeps its old row
+                String replacedId = replacedIds.get(segment.metadata().getString(SEGMENT_KEY));
+                if (replacedId != null) staleIds.add(replacedId);
             }
+            deleteSegments(staleIds);
+            embedded += written.size();
+            deleted += staleIds.size();
+            failures += changed.size() - written.size();
+            failed += failures;
+            return failures;
         }
-        log.info("Finished ingesting reviews!");
+    }
+
+    private List<StoredSegment> storedSegments(String type) {
+        return jdbcTemplate.query(STORED_SEGMENTS_SQL,
+                (rs, rowNum) -> new StoredSegment(rs.getString(1), rs.getString(2), rs.getString(3)), type);
+    }
+
+    private List<StoredSegment> storedSegments(List<String> keys) {
+        List<StoredSegment> rows = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += KEY_LOOKUP_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + KEY_LOOKUP_CHUNK, keys.size()));
+            String sql = String.format(STORED_SEGMENTS_BY_KEY_SQL, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            rows.addAll(jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new StoredSegment(rs.getString(1), rs.getString(2), rs.getString(3)), chunk.toArray()));
+        }
+        return rows;
+    }
+
+    private static List<String> segmentKeys(String type, Collection<Long> ids) {
+        return ids.stream().map(id -> type + ":" + id).toList();
+    }
+
+    private void deleteSegments(List<String> ids) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE_SEGMENT_SQL, ids, 500,
+                (ps, id) -> ps.setObject(1, UUID.fromString(id)));
+        queryEmbeddingCache.invalidate();
+    }
+
+    private TextSegment courseSegment(Course course) {
+        String content = buildCourseContent(course);
+        Metadata metadata = new Metadata();
+        metadata.put("type", COURSE_TYPE);
+        metadata.put(SEGMENT_KEY, COURSE_TYPE + ":" + course.getId());
+        metadata.put(CONTENT_HASH, contentHash(content));
+        metadata.put("course_id", String.valueOf(course.getId()));
+        metadata.put("code", course.getCourseCode());
+        metadata.put("department", course.getDepartment());
+        metadata.put("college", course.getCollege());
+        metadata.put("overall rating", course.getAverageOverallRating());
+        metadata.put("workload rating", course.getAverageWorkloadRating());
+        metadata.put("usefulness rating", course.getAverageUsefulnessRating());
+        metadata.put("interest rating", course.getAverageInterestRating());
+        metadata.put("professor rating", course.getAverageTeacherRating());
+        metadata.put("difficulty rating", course.getAverageDifficultyRating());
+        metadata.put("hubs", collectHubs(course));
+        return TextSegment.from(content, metadata);
+    }
+
+    private TextSegment reviewSegment(Review review) {
+        String content = buildReviewContent(review);
+        Metadata metadata = new Metadata();
+        metadata.put("type", REVIEW_TYPE);
+        metadata.put(SEGMENT_KEY, REVIEW_TYPE + ":" + review.getId());
+        metadata.put(CONTENT_HASH, contentHash(content));
+        metadata.put("course_id", String.valueOf(review.getCourse().getId()));
+        return TextSegment.from(content, metadata);
     }
 
     private String buildCourseContent(Course course) {
@@ -124,6 +296,19 @@ public class RagIngestionService {
         }
         return course.getHubRequirements().stream()
                 .map(HubRequirement::getCode)
+                .sorted() // stable text, so the content hash only changes with the hubs
                 .collect(Collectors.joining(", "));
     }
-}
\ No newline at end of file
+
+    static String contentHash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) { // every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredSegment(String id, String key, String contentHash) {
+    }
+}
@@ -4,17 +4,13 @@ import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.HubRequirement;
 import com.coursegrade.CourseGraderBackend.model.User;
 import com.coursegrade.CourseGraderBackend.repository.UserRepository;
-import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
-import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
-import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -32,8 +28,7 @@ import java.util.stream.Collectors;
 public class RagService {
 
     private final UserRepository userRepository;
-    private final EmbeddingStore<TextSegment> embeddingStore;
-    private final EmbeddingModel embeddingModel;
+    private final QueryEmbeddingCache queryEmbeddingCache;
     private final ChatLanguageModel chatLanguageModel;
     private final Map<Long, ChatMemory> userMemories = new ConcurrentHashMap<>();
 
@@ -44,13 +39,8 @@ public class RagService {
         ChatMemory chatMemory = userMemories.computeIfAbsent(userId, id ->
                 MessageWindowChatMemory.withMaxMessages(5)
         );
-        Embedding questionEmbedding = embeddingModel.embed(userQuestion).content();
-        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
-                .queryEmbedding(questionEmbedding)
-                .maxResults(5) // 5 to stay under 15k TPM limit
-                .minScore(0.4)
-                .build();
-        List<EmbeddingMatch<TextSegment>> relevantMatches = embeddingStore.search(searchRequest).matches();
+        List<EmbeddingMatch<TextSegment>> relevantMatches =
+                queryEmbeddingCache.search(userQuestion, 5, 0.4); // 5 to stay under 15k TPM limit
         String contextInfo = relevantMatches.stream()
                 .map(match -> match.embedded().text())
                 .collect(Collectors.joining("\n\n---\n\n"));
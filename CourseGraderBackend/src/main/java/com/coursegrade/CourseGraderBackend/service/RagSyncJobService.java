@@ -0,0 +1,212 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.RagSyncJobDTO;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.Review;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the admin triggered RAG syncs (AIController) as background jobs. Jobs run one at a time on their
+ * own thread and read the source table in keyset chunks of app.rag.sync-chunk-size rows, so a sync never
+ * holds a request thread, a transaction or the whole table. Progress is kept per job id for the status
+ * endpoint, and a cancelled job stops after its current chunk without deleting anything.
+ */
+@Slf4j
+@Service
+public class RagSyncJobService {
+
+    private static final int MAX_FINISHED_JOBS = 20; // kept for status lookups
+
+    public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Value("${app.rag.sync-chunk-size:200}")
+    private int chunkSize;
+
+    private final RagIngestionService ragIngestionService;
+    private final CourseRepository courseRepository;
+    private final ReviewRepository reviewRepository;
+    private final Map<String, Job> jobs = new LinkedHashMap<>(); // oldest first, guarded by this
+    private ExecutorService runner;
+
+    public RagSyncJobService(RagIngestionService ragIngestionService, CourseRepository courseRepository,
+                             ReviewRepository reviewRepository) {
+        this.ragIngestionService = ragIngestionService;
+        this.courseRepository = courseRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rag-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Queues a full sync of COURSE or REVIEW embeddings. If one of that type is already queued or
+     * running, returns that job instead of starting another.
+     */
+    public synchronized RagSyncJobDTO start(String type) {
+        for (Job job : jobs.values()) {
+            if (job.type.equals(type) && !job.isFinished()) return job.toDTO();
+        }
+        Job job = new Job(UUID.randomUUID().toString(), type);
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+        runner.submit(() -> run(job));
+        return job.toDTO();
+    }
+
+    public synchronized Optional<RagSyncJobDTO> status(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toDTO);
+    }
+
+    /**
+     * Asks the job to stop after its current chunk. Returns false for unknown or finished jobs.
+     */
+    public synchronized boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.isFinished()) return false;
+        job.cancelled = true;
+        return true;
+    }
+
+    void run(Job job) {
+        if (job.cancelled) {
+            job.finish(State.CANCELLED, null);
+            return;
+        }
+        job.begin();
+        try {
+            job.total = RagIngestionService.COURSE_TYPE.equals(job.type) ? courseRepository.count() : reviewRepository.count();
+            log.info("RAG sync job {} started for {} {} rows", job.id, job.total, job.type);
+            RagIngestionService.Sync sync = ragIngestionService.beginSync(job.type);
+            long afterId = 0L;
+            while (true) {
+                if (job.cancelled || Thread.currentThread().isInterrupted()) {
+                    log.info("RAG sync job {} cancelled after {} rows", job.id, job.processed.get());
+                    job.finish(State.CANCELLED, null);
+                    return;
+                }
+                PageRequest chunk = PageRequest.of(0, chunkSize);
+                int failures;
+                int rows;
+                if (RagIngestionService.COURSE_TYPE.equals(job.type)) {
+                    List<Long> ids = courseRepository.findIdsAfter(afterId, chunk);
+                    if (ids.isEmpty()) break;
+                    List<Course> courses = courseRepository.findAllWithHubRequirementsByIdIn(ids);
+                    failures = sync.addCourses(courses);
+                    rows = ids.size();
+                    afterId = ids.get(ids.size() - 1);
+                }
+                else {
+                    List<Review> reviews = reviewRepository.findByIdGreaterThanOrderByIdAsc(afterId, chunk);
+                    if (reviews.isEmpty()) break;
+                    failures = sync.addReviews(reviews);
+                    rows = reviews.size();
+                    afterId = reviews.get(reviews.size() - 1).getId();
+                }
+                job.processed.addAndGet(rows);
+                job.failed.addAndGet(failures);
+            }
+            sync.finish();
+            job.finish(State.COMPLETED, null);
+            log.info("RAG sync job {} finished: {} rows, {} failed", job.id, job.processed.get(), job.failed.get());
+        } catch (RuntimeException e) {
+            log.error("RAG sync job {} failed", job.id, e);
+            job.finish(State.FAILED, e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int finished = (int) jobs.values().stream().filter(Job::isFinished).count();
+        Iterator<Job> oldestFirst = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+                finished--;
+            }
+        }
+    }
+
+    static final class Job {
+        private final String id;
+        private final String type;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile State state = State.QUEUED;
+        private volatile boolean cancelled;
+        private volatile long total;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Job(String id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        void begin() {
+            this.startedAt = LocalDateTime.now();
+            this.state = State.RUNNING;
+        }
+
+        void finish(State finalState, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = finalState;
+        }
+
+        boolean isFinished() {
+            return state != State.QUEUED && state != State.RUNNING;
+        }
+
+        RagSyncJobDTO toDTO() {
+            long done = processed.get();
+            double rate = 0.0;
+            Long eta = null;
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+                rate = seconds > 0 ? done / seconds : 0.0;
+                if (state == State.RUNNING && rate > 0) {
+                    eta = (long) Math.ceil(Math.max(0, total - done) / rate);
+                }
+            }
+            return RagSyncJobDTO.builder()
+                    .jobId(id)
+                    .type(type)
+                    .state(state.name())
+                    .total(total)
+                    .processed(done)
+                    .failed(failed.get())
+                    .rowsPerSecond(rate)
+                    .etaSeconds(eta)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import java.io.IOException;
+
+/**
+ * Fetches from the wrapped fetcher and saves every page to the archive. Always asks for the full page
+ * so the archive stays complete, and answers conditional requests itself.
+ */
+public class RecordingPageFetcher implements PageFetcher {
+
+    private final PageFetcher delegate;
+    private final PageArchive archive;
+
+    public RecordingPageFetcher(PageFetcher delegate, PageArchive archive) {
+        this.delegate = delegate;
+        this.archive = archive;
+    }
+
+    @Override
+    public Response fetch(String url, String etag, String lastModified) throws IOException {
+        Response response = delegate.fetch(url, null, null);
+        archive.save(url, response);
+        return PageArchive.conditional(response, etag, lastModified);
+    }
+}
@@ -0,0 +1,30 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import org.jsoup.HttpStatusException;
+
+import java.io.IOException;
+
+/**
+ * Serves pages from an archive made by RecordingPageFetcher, no network involved. Pages that were
+ * never recorded fail with a 404 like a missing page on the live site.
+ */
+public class ReplayPageFetcher implements PageFetcher {
+
+    private final PageArchive archive;
+
+    public ReplayPageFetcher(PageArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public Response fetch(String url, String etag, String lastModified) throws IOException {
+        Response page = archive.load(url)
+                .orElseThrow(() -> new HttpStatusException("Page not in scrape archive", 404, url));
+        return PageArchive.conditional(page, etag, lastModified);
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+}
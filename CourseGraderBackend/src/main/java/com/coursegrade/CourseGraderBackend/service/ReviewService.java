@@ -1,7 +1,9 @@
 package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.CreateReviewDTO;
+import com.coursegrade.CourseGraderBackend.dto.ReviewPageDTO;
 import com.coursegrade.CourseGraderBackend.dto.ReviewResponseDTO;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.Role;
@@ -9,6 +11,7 @@ import com.coursegrade.CourseGraderBackend.model.User;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -22,6 +25,8 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final CourseService courseService;
+    private final CourseRatingAggregator courseRatingAggregator;
+    private final ApplicationEventPublisher eventPublisher; // review changes for RagIndexer
 
     @Transactional
     public ReviewResponseDTO createReview(User user, Long courseId, CreateReviewDTO reviewDTO) {
@@ -48,7 +53,9 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
 
         Review savedReview = reviewRepository.save(review);
-        courseService.updateCourseRatings(courseId);
+        courseRatingAggregator.enqueueDelta(courseId, 1, review.getUsefulnessRating(), review.getDifficultyRating(),
+                review.getWorkloadRating(), review.getInterestRating(), review.getTeacherRating());
+        eventPublisher.publishEvent(new ReviewChangedEvent(savedReview.getId()));
 
         return courseService.convertToResponseDTO(savedReview, user);
     }
@@ -74,6 +81,13 @@ public class ReviewService {
             throw new RuntimeException("Can only update own reviews or need admin");
         }
 
+        // old ratings, so only the difference is applied to the course totals
+        int usefulnessDelta = reviewDTO.getUsefulnessRating() - review.getUsefulnessRating();
+        int difficultyDelta = reviewDTO.getDifficultyRating() - review.getDifficultyRating();
+        int workloadDelta = reviewDTO.getWorkloadRating() - review.getWorkloadRating();
+        int interestDelta = reviewDTO.getInterestRating() - review.getInterestRating();
+        int teacherDelta = reviewDTO.getTeacherRating() - review.getTeacherRating();
+
         review.setDifficultyRating(reviewDTO.getDifficultyRating());
         review.setTeacherRating(reviewDTO.getTeacherRating());
         review.setWorkloadRating(reviewDTO.getWorkloadRating());
@@ -95,7 +109,11 @@ public class ReviewService {
         }
 
         Review savedReview = reviewRepository.save(review);
-        courseService.updateCourseRatings(review.getCourse().getId());
+        if (usefulnessDelta != 0 || difficultyDelta != 0 || workloadDelta != 0 || interestDelta != 0 || teacherDelta != 0) {
+            courseRatingAggregator.enqueueDelta(review.getCourse().getId(), 0, usefulnessDelta, difficultyDelta,
+                    workloadDelta, interestDelta, teacherDelta);
+        }
+        eventPublisher.publishEvent(new ReviewChangedEvent(savedReview.getId()));
 
         return courseService.convertToResponseDTO(savedReview, user);
     }
@@ -111,37 +129,28 @@ public class ReviewService {
 
         Course course = review.getCourse();
         reviewRepository.delete(review);
-        courseService.updateCourseRatings(course.getId());
+        courseRatingAggregator.enqueueDelta(course.getId(), -1, -review.getUsefulnessRating(), -review.getDifficultyRating(),
+                -review.getWorkloadRating(), -review.getInterestRating(), -review.getTeacherRating());
+        eventPublisher.publishEvent(new ReviewChangedEvent(reviewId));
     }
 
     public ReviewResponseDTO getReviewById(Long reviewId, User currentUser) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
-        return courseService.convertToResponseDTO(review, currentUser);
+        return courseService.convertToResponseDTOs(List.of(review), currentUser).get(0);
     }
 
-    public List<ReviewResponseDTO> getReviewsByCourseAndTeacher(Long courseId, User user, String teacher) {
+    public ReviewPageDTO getReviewsByCourseAndTeacher(Long courseId, User user, String teacher, String cursor, int size) {
         Course course = courseService.getCourseById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
-        List<Review> reviews = reviewRepository.findByCourseOrderByCreatedAtDesc(course);
-        List<ReviewResponseDTO> dtos = new ArrayList<>();
-        for (Review review : reviews) {
-            if (teacher == null || teacher.isEmpty() || review.getTeacherName().equals(teacher)) {
-                dtos.add(courseService.convertToResponseDTO(review, user));
-            }
-        }
-        return dtos;
+        return courseService.getReviewPage(course, user, teacher, cursor, size);
     }
 
     public List<ReviewResponseDTO> getReviewsByTeacher(Long courseId, String teacher, User currentUser) {
         Course course = courseService.getCourseById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
         List<Review> reviews = reviewRepository.findByCourseAndTeacherNameContainingIgnoreCase(course, teacher);
-        List<ReviewResponseDTO> dtos = new ArrayList<>();
-        for (Review review : reviews) {
-            dtos.add(courseService.convertToResponseDTO(review, currentUser));
-        }
-        return dtos;
+        return courseService.convertToResponseDTOs(reviews, currentUser);
     }
 
     public List<String> getReviewTeachers(Long courseId) {
@@ -169,11 +178,7 @@ public class ReviewService {
     public List<ReviewResponseDTO> getMyReviews(User currentUser) {
         // Add ordering by createdAt descending
         List<Review> reviews = reviewRepository.findByUserOrderByCreatedAtDesc(currentUser);
-        List<ReviewResponseDTO> dtos = new ArrayList<>();
-        for (Review review : reviews) {
-            dtos.add(courseService.convertToResponseDTO(review, currentUser));
-        }
-        return dtos;
+        return courseService.convertToResponseDTOs(reviews, currentUser);
     }
 
     public List<ReviewResponseDTO> getAllReviews(User currentUser) {
@@ -181,10 +186,6 @@ public class ReviewService {
             throw new RuntimeException("Only admins can view all reviews together");
         }
         List<Review> reviews = reviewRepository.findAll();
-        List<ReviewResponseDTO> dtos = new ArrayList<>();
-        for (Review review : reviews) {
-            dtos.add(courseService.convertToResponseDTO(review, currentUser));
-        }
-        return dtos;
+        return courseService.convertToResponseDTOs(reviews, currentUser);
     }
 }
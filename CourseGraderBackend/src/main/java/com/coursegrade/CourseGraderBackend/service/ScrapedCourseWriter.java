@@ -0,0 +1,96 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Bulk ingestion stage for courses parsed off the catalog listing pages. Courses are buffered and written
+ * with INSERT ... ON CONFLICT DO UPDATE in JDBC batches, so a catalog load costs a few round trips per
+ * thousand courses instead of a lookup and a save per course. Relies on uk_courses_college_department_code;
+ * if a batch fails (e.g. the constraint could not be created over old duplicates) it is saved one by one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScrapedCourseWriter {
+
+    // New courses start with empty ratings like CourseService.createCourse, existing ones only pick up title and url changes
+    static final String UPSERT_SQL = "INSERT INTO courses (title, college, department, course_code, base_url, " +
+            "total_reviews, average_overall_rating, average_usefulness_rating, average_difficulty_rating, " +
+            "average_workload_rating, average_interest_rating, average_teacher_rating, usefulness_rating_sum, " +
+            "difficulty_rating_sum, workload_rating_sum, interest_rating_sum, teacher_rating_sum) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0, 0, 0, 0, 0) " +
+            "ON CONFLICT (college, department, course_code) DO UPDATE " +
+            "SET title = EXCLUDED.title, base_url = EXCLUDED.base_url " +
+            "WHERE courses.title IS DISTINCT FROM EXCLUDED.title OR courses.base_url IS DISTINCT FROM EXCLUDED.base_url";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseService courseService;
+    private final CourseSearchIndex courseSearchIndex;
+    private final Map<String, ScrapedCourse> buffer = new LinkedHashMap<>(); // course key -> latest parse, guarded by this
+
+    @Value("${app.scraper.upsert-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Buffers a course, writing the buffer once it holds a full batch. Safe to call from scraper workers.
+     */
+    public void add(String college, String department, String courseCode, String title, String baseUrl) {
+        ScrapedCourse course = new ScrapedCourse(college, department, courseCode, title, baseUrl);
+        List<ScrapedCourse> batch = null;
+        synchronized (this) {
+            buffer.put(college + " " + department + " " + courseCode, course); // one row per key per statement batch
+            if (buffer.size() >= batchSize) {
+                batch = drainBuffer();
+            }
+        }
+        if (batch != null) write(batch);
+    }
+
+    /**
+     * Writes whatever is buffered. Call once a scrape stage is done, before reading the courses back.
+     */
+    public void flush() {
+        List<ScrapedCourse> batch;
+        synchronized (this) {
+            batch = drainBuffer();
+        }
+        if (!batch.isEmpty()) write(batch);
+    }
+
+    private List<ScrapedCourse> drainBuffer() {
+        List<ScrapedCourse> batch = new ArrayList<>(buffer.values());
+        buffer.clear();
+        return batch;
+    }
+
+    private void write(List<ScrapedCourse> batch) {
+        long startTime = System.currentTimeMillis();
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, course) -> {
+                ps.setString(1, course.title());
+                ps.setString(2, course.college());
+                ps.setString(3, course.department());
+                ps.setString(4, course.courseCode());
+                ps.setString(5, course.baseUrl());
+            });
+            log.info("Upserted {} scraped courses in {} ms", batch.size(), System.currentTimeMillis() - startTime);
+        } catch (DataAccessException e) {
+            log.warn("Batch upsert of {} courses failed, saving them one by one: {}", batch.size(), e.getMessage());
+            for (ScrapedCourse course : batch) {
+                courseService.saveScrapedCourse(course.college(), course.department(), course.courseCode(),
+                        course.title(), course.baseUrl());
+            }
+        }
+        courseSearchIndex.invalidate();
+    }
+
+    private record ScrapedCourse(String college, String department, String courseCode, String title, String baseUrl) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fetching and scheduling for the catalog scraper. Pages are fetched by a bounded pool of workers,
+ * each host gets a token bucket so the pool never exceeds app.scraper.requests-per-second against
+ * bu.edu, and timeouts, 429s and 5xx responses are retried with exponential backoff. Raw pages come
+ * from the configured PageFetcher, so the same engine can replay a recorded archive offline.
+ */
+@Slf4j
+@Service
+public class ScraperEngine {
+
+    private static final int PROGRESS_LOG_INTERVAL = 250;
+
+    @Value("${app.scraper.workers:8}")
+    private int workers;
+
+    @Value("${app.scraper.requests-per-second:4}")
+    private double requestsPerSecond;
+
+    @Value("${app.scraper.burst:4}")
+    private int burst;
+
+    @Value("${app.scraper.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.scraper.backoff-ms:2000}")
+    private long backoffMillis;
+
+    private final MeterRegistry meterRegistry;
+    private final PageFetcher pageFetcher;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>(); // host -> limiter
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private ExecutorService pool;
+    private Counter fetched;
+    private Counter notModified;
+    private Counter failed;
+    private Counter retried;
+    private Counter completedTasks;
+    private Timer fetchTimer;
+
+    public ScraperEngine(MeterRegistry meterRegistry, PageFetcher pageFetcher) {
+        this.meterRegistry = meterRegistry;
+        this.pageFetcher = pageFetcher;
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "scraper-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("scraper.tasks.pending", pendingTasks, AtomicInteger::get)
+                .description("Scrape tasks submitted and not yet finished")
+                .register(meterRegistry);
+        fetched = Counter.builder("scraper.pages.fetched")
+                .description("Pages fetched successfully")
+                .register(meterRegistry);
+        notModified = Counter.builder("scraper.pages.not-modified")
+                .description("Conditional fetches answered with 304 Not Modified")
+                .register(meterRegistry);
+        failed = Counter.builder("scraper.pages.failed")
+                .description("Pages given up on after every attempt")
+                .register(meterRegistry);
+        retried = Counter.builder("scraper.pages.retried")
+                .description("Fetch attempts repeated after a timeout or server error")
+                .register(meterRegistry);
+        completedTasks = Counter.builder("scraper.tasks.completed")
+                .description("Scrape tasks finished, successfully or not")
+                .register(meterRegistry);
+        fetchTimer = Timer.builder("scraper.fetch")
+                .description("Time to fetch and parse one page, rate limiting excluded")
+                .tag("remote", String.valueOf(pageFetcher.isRemote()))
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Fetches and parses a page, waiting for the host's rate limit before every attempt (pages replayed
+     * from an archive are not rate limited).
+     * Client errors other than 429 fail straight away, anything else is retried up to max-attempts.
+     */
+    public Document fetch(String url) throws IOException {
+        return fetchIfChanged(url, null, null).document();
+    }
+
+    /**
+     * Conditional variant of fetch: sends the validators from the previous fetch (either may be null)
+     * and returns a page without a document when the server answers 304 Not Modified.
+     */
+    public FetchedPage fetchIfChanged(String url, String etag, String lastModified) throws IOException {
+        TokenBucket bucket = buckets.computeIfAbsent(host(url), host -> new TokenBucket(requestsPerSecond, burst));
+        IOException lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                if (pageFetcher.isRemote()) bucket.acquire();
+                Timer.Sample sample = Timer.start();
+                PageFetcher.Response response = pageFetcher.fetch(url, etag, lastModified);
+                if (response.statusCode() == 304) {
+                    sample.stop(fetchTimer);
+                    notModified.increment();
+                    return new FetchedPage(null, etag, lastModified);
+                }
+                Document doc = Jsoup.parse(response.body(), url);
+                sample.stop(fetchTimer);
+                fetched.increment();
+                return new FetchedPage(doc, response.etag(), response.lastModified());
+            } catch (HttpStatusException e) {
+                if (e.getStatusCode() < 500 && e.getStatusCode() != 429) {
+                    failed.increment();
+                    throw e;
+                }
+                lastError = e;
+            } catch (InterruptedIOException e) {
+                if (Thread.currentThread().isInterrupted()) throw e;
+                lastError = e; // socket timeout
+            } catch (IOException e) {
+                lastError = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for rate limit");
+            }
+            if (attempt < maxAttempts) {
+                retried.increment();
+                backoff(attempt);
+            }
+        }
+        failed.increment();
+        throw lastError;
+    }
+
+    /**
+     * Runs the task for every item on the worker pool and waits for all of them. A task that throws is
+     * logged and skipped so one malformed page can't stop a scrape. Call from outside the pool only,
+     * a worker waiting on its own pool could starve it.
+     */
+    public <T> void forEach(Collection<T> items, Consumer<T> task) {
+        int total = items.size();
+        AtomicInteger done = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(total);
+        for (T item : items) {
+            pendingTasks.incrementAndGet();
+            futures.add(pool.submit(() -> {
+                try {
+                    task.accept(item);
+                } catch (RuntimeException e) {
+                    log.warn("Scrape task failed for {}: {}", item, e.toString());
+                } finally {
+                    pendingTasks.decrementAndGet();
+                    completedTasks.increment();
+                    int finished = done.incrementAndGet();
+                    if (finished % PROGRESS_LOG_INTERVAL == 0 || finished == total) {
+                        log.info("Scrape progress: {} of {}", finished, total);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) { // tasks catch their own exceptions, only errors get here
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Scrape task failed", e.getCause());
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedIOException {
+        long delay = backoffMillis << (attempt - 1);
+        delay += ThreadLocalRandom.current().nextLong(delay / 2 + 1); // jitter so workers don't retry in lockstep
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    private static String host(String url) {
+        String host = URI.create(url).getHost();
+        return host == null ? url : host;
+    }
+
+    /**
+     * A fetched page with the validators to send next time, document is null when it was not modified.
+     */
+    public record FetchedPage(Document document, String etag, String lastModified) {
+        public boolean notModified() {
+            return document == null;
+        }
+    }
+
+    /**
+     * Classic token bucket: refills at a fixed rate up to its capacity. A caller that finds it empty
+     * reserves the next token anyway (the balance goes negative) and sleeps until it is due, so
+     * concurrent callers are spaced out in arrival order instead of spinning.
+     */
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double perSecond, int capacity) {
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        void acquire() throws InterruptedException {
+            long wait = reserve(System.nanoTime());
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+
+        /**
+         * Takes one token and returns how many nanoseconds the caller has to wait before using it.
+         */
+        synchronized long reserve(long now) {
+            if (now > lastRefill) { // a caller that read the clock earlier may get the lock later
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+    }
+}
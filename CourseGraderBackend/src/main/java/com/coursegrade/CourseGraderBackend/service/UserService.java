@@ -3,6 +3,7 @@ package com.coursegrade.CourseGraderBackend.service;
 import com.coursegrade.CourseGraderBackend.dto.*;
 import com.coursegrade.CourseGraderBackend.model.*;
 import com.coursegrade.CourseGraderBackend.repository.*;
+import com.coursegrade.CourseGraderBackend.security.UserPrincipalCache;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +22,8 @@ public class UserService {
     private final ReviewRepository reviewRepository;
     private final VoteRepository voteRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final CourseRatingAggregator courseRatingAggregator;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Transactional
     public HubProgressDTO getHubProgress(Long userId) {
@@ -150,7 +153,9 @@ public class UserService {
     }
 
     @Transactional
-    public void changePassword(User user, ChangePasswordDTO passwordResetDTO) {
+    public void changePassword(User currentUser, ChangePasswordDTO passwordResetDTO) {
+        User user = userRepository.findById(currentUser.getId()) // the principal may be built from token claims
+                .orElseThrow(() -> new RuntimeException("User not found"));
         if (!passwordResetDTO.getNewPassword().equals(passwordResetDTO.getConfirmNewPassword())) {
             throw new RuntimeException("Passwords do not match");
         }
@@ -159,6 +164,7 @@ public class UserService {
         }
         user.setPassword(passwordEncoder.encode(passwordResetDTO.getNewPassword()));
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
     }
 
     @Transactional
@@ -179,8 +185,9 @@ public class UserService {
         user.getHubProgress().clear();
         userRepository.save(user);
         userRepository.delete(user);
+        userPrincipalCache.invalidate(userId);
         for (Long courseId : affectedCourseIds) {
-            courseService.updateCourseRatings(courseId);
+            courseRatingAggregator.enqueueRecompute(courseId); // recomputed in the background after commit
         }
     }
 }
\ No newline at end of file
@@ -1,48 +1,70 @@
 package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.VoteResponseDTO;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.User;
 import com.coursegrade.CourseGraderBackend.model.Vote;
 import com.coursegrade.CourseGraderBackend.model.VoteType;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
 import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class VoteService {
+    private static final int MAX_BULK_REVIEWS = 100;
+    private static final int MAX_VOTE_ATTEMPTS = 3;
+
     private final VoteRepository voteRepository;
     private final ReviewRepository reviewRepository;
+    private final VoteWriteBuffer voteWriteBuffer;
+    private final ApplicationEventPublisher eventPublisher; // index threshold crossings for RagIndexer
+
+    @Value("${app.votes.write-behind:false}") // buffer votes in memory and write them in batches
+    private boolean writeBehind;
 
+    /**
+     * Applies the click as a transition of the user's vote (none, up or down) and moves the review's
+     * counters by that transition with one UPDATE, so concurrent voters never overwrite each other's
+     * counts and no votes are scanned. In write-behind mode the click is only recorded in VoteWriteBuffer.
+     */
+    @Transactional
     public VoteResponseDTO voteOnReview(User user, Long reviewId, String voteType) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
-        Optional<Vote> vote = voteRepository.findByUserAndReview(user, review);
         VoteType voteTypeEnum = VoteType.valueOf(voteType);
-        if (vote.isPresent()) {
-            Vote curVote = vote.get();
-            if (curVote.getVoteType() == voteTypeEnum) {
-                voteRepository.delete(curVote);
-            }
-            else {
-                curVote.setVoteType(voteTypeEnum);
-                voteRepository.save(curVote);
-            }
+        if (writeBehind) {
+            return voteWriteBuffer.record(user, review, voteTypeEnum);
         }
-        else {
-            Vote newVote = new Vote();
-            newVote.setUser(user);
-            newVote.setReview(review);
-            newVote.setVoteType(voteTypeEnum);
-            voteRepository.save(newVote);
+        for (int attempt = 0; attempt < MAX_VOTE_ATTEMPTS; attempt++) {
+            Optional<Vote> vote = voteRepository.findByUserAndReview(user, review);
+            VoteType current = vote.map(Vote::getVoteType).orElse(null);
+            VoteType next = current == voteTypeEnum ? null : voteTypeEnum; // same vote again toggles it off
+            if (applyTransition(vote.orElse(null), user, review, next)) {
+                int upvotes = countDelta(VoteType.UPVOTE, current, next);
+                int downvotes = countDelta(VoteType.DOWNVOTE, current, next);
+                reviewRepository.adjustVoteCounts(reviewId, upvotes, downvotes);
+                int netVotes = reviewRepository.findNetVotes(reviewId) // deleted since it was loaded
+                        .orElseThrow(() -> new RuntimeException("Review not found"));
+                if (RagIngestionService.crossesIndexThreshold(netVotes - upvotes + downvotes, netVotes)) {
+                    eventPublisher.publishEvent(new ReviewChangedEvent(reviewId));
+                }
+                return VoteResponseDTO.builder()
+                        .reviewId(reviewId.toString())
+                        .voteCount(netVotes)
+                        .userVote(next == null ? null : next.toString())
+                        .build();
+            }
         }
-        updateReviewVotes(review);
-        return convertToResponseDTO(review, user);
+        throw new RuntimeException("Vote changed while saving, please try again");
     }
 
     public VoteResponseDTO getReviewVotes(User user, Long reviewId) {
@@ -51,17 +73,60 @@ public class VoteService {
         return convertToResponseDTO(review, user);
     }
 
-    private void updateReviewVotes(Review review) {
-        List<Vote> votes = voteRepository.findByReview(review);
-        Integer upvotes = 0;
-        Integer downvotes = 0;
-        for (Vote vote : votes) {
-            if (vote.getVoteType() == VoteType.UPVOTE) upvotes++;
-            else if (vote.getVoteType() == VoteType.DOWNVOTE) downvotes++;
+    /**
+     * Vote totals and the user's own vote for a page of reviews: one query for the reviews and one
+     * IN query for the user's votes, in the order the ids were given. Unknown ids are skipped.
+     */
+    public List<VoteResponseDTO> getReviewVotes(User user, List<Long> reviewIds) {
+        if (reviewIds.size() > MAX_BULK_REVIEWS) {
+            throw new RuntimeException("Can request votes for at most " + MAX_BULK_REVIEWS + " reviews");
+        }
+        Map<Long, Review> reviews = new HashMap<>();
+        for (Review review : reviewRepository.findAllById(reviewIds)) {
+            reviews.put(review.getId(), review);
         }
-        review.setUpvoteCount(upvotes);
-        review.setDownvoteCount(downvotes);
-        reviewRepository.save(review);
+        Map<Long, VoteType> userVotes = new HashMap<>();
+        if (user != null && !reviews.isEmpty()) {
+            for (Vote vote : voteRepository.findByUserAndReviewIdIn(user, reviews.keySet())) {
+                userVotes.put(vote.getReview().getId(), vote.getVoteType());
+            }
+        }
+        List<VoteResponseDTO> dtos = new ArrayList<>();
+        for (Long reviewId : reviewIds) {
+            Review review = reviews.get(reviewId);
+            if (review == null) continue;
+            VoteType type = userVotes.get(reviewId);
+            dtos.add(VoteResponseDTO.builder()
+                    .reviewId(review.getId().toString())
+                    .voteCount(review.getUpvoteCount() - review.getDownvoteCount())
+                    .userVote(type == null ? null : type.toString())
+                    .build());
+        }
+        return dtos;
+    }
+
+    // Only succeeds if the vote is still in the state it was read in, so a transition is counted once
+    private boolean applyTransition(Vote vote, User user, Review review, VoteType next) {
+        if (vote == null) {
+            Vote newVote = new Vote();
+            newVote.setUser(user);
+            newVote.setReview(review);
+            newVote.setVoteType(next);
+            try {
+                voteRepository.saveAndFlush(newVote);
+            } catch (DataIntegrityViolationException e) { // unique (user, review), a parallel request voted first
+                throw new RuntimeException("Vote changed while saving, please try again");
+            }
+            return true;
+        }
+        if (next == null) {
+            return voteRepository.deleteIfType(vote.getId(), vote.getVoteType()) == 1;
+        }
+        return voteRepository.changeTypeIfCurrent(vote.getId(), vote.getVoteType(), next) == 1;
+    }
+
+    static int countDelta(VoteType counted, VoteType current, VoteType next) {
+        return (next == counted ? 1 : 0) - (current == counted ? 1 : 0);
     }
 
     private VoteResponseDTO convertToResponseDTO(Review review, User user) {
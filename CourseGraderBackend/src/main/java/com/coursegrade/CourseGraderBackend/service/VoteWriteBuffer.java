@@ -0,0 +1,248 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.VoteResponseDTO;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
+import com.coursegrade.CourseGraderBackend.model.Review;
+import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.model.Vote;
+import com.coursegrade.CourseGraderBackend.model.VoteType;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import com.coursegrade.CourseGraderBackend.repository.UserRepository;
+import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind path for votes, used when app.votes.write-behind is on. A click only changes the user's
+ * pending vote in memory, and a scheduled flush writes each review's pending votes plus one counter
+ * UPDATE in a transaction per review. Entries are dropped only after the transaction that wrote them has
+ * committed, so a review whose write fails is retried on the next run without holding up the others.
+ * A vote the database rejects (e.g. its user was deleted meanwhile) is dropped with an error and counted
+ * in votes.write-behind.dropped. Totals read from the database (review lists, GET /api/votes) trail by
+ * up to one flush interval.
+ */
+@Slf4j
+@Service
+public class VoteWriteBuffer {
+
+    private final VoteRepository voteRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter dropped;
+    // reviewId -> userId -> pending vote, a review's map is only read or changed inside pending.compute
+    private final ConcurrentHashMap<Long, Map<Long, PendingVote>> pending = new ConcurrentHashMap<>();
+
+    public VoteWriteBuffer(VoteRepository voteRepository, ReviewRepository reviewRepository,
+                           UserRepository userRepository, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.voteRepository = voteRepository;
+        this.reviewRepository = reviewRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("votes.write-behind.pending", this, VoteWriteBuffer::pendingVotes)
+                .description("Votes recorded in memory and not yet written to the database")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("votes.write-behind.dropped")
+                .description("Buffered votes dropped because the database rejected them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same toggle rules as VoteService.voteOnReview. The returned total is the stored total plus
+     * the review's pending changes.
+     */
+    public VoteResponseDTO record(User user, Review review, VoteType clicked) {
+        Long reviewId = review.getId();
+        Long userId = user.getId();
+        VoteType stored = null;
+        boolean storedLoaded = false;
+        while (true) {
+            VoteType baseline = stored;
+            boolean loaded = storedLoaded;
+            VoteResponseDTO[] result = new VoteResponseDTO[1];
+            pending.compute(reviewId, (id, votes) -> {
+                PendingVote current = votes == null ? null : votes.get(userId);
+                if (current == null) {
+                    if (!loaded) return votes; // first click since the last flush, read the stored vote outside the lock
+                    current = new PendingVote(baseline, baseline);
+                }
+                if (votes == null) votes = new HashMap<>();
+                PendingVote next = current.toggle(clicked);
+                votes.put(userId, next); // kept even when back to the stored vote, a flush may be writing the old one
+                int netChange = 0;
+                for (PendingVote vote : votes.values()) {
+                    netChange += vote.netChange();
+                }
+                result[0] = VoteResponseDTO.builder()
+                        .reviewId(reviewId.toString())
+                        .voteCount(review.getUpvoteCount() - review.getDownvoteCount() + netChange)
+                        .userVote(next.desired == null ? null : next.desired.toString())
+                        .build();
+                return votes;
+            });
+            if (result[0] != null) return result[0];
+            stored = voteRepository.findByUserAndReview(user, review).map(Vote::getVoteType).orElse(null);
+            storedLoaded = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.flush-interval-ms:250}")
+    public synchronized void flush() {
+        Map<Long, Map<Long, PendingVote>> batch = new HashMap<>();
+        for (Long reviewId : pending.keySet()) {
+            pending.computeIfPresent(reviewId, (id, votes) -> {
+                batch.put(id, new HashMap<>(votes));
+                return votes;
+            });
+        }
+        batch.forEach((reviewId, snapshot) -> {
+            Map<Long, PendingVote> written = new HashMap<>();
+            Map<Long, PendingVote> rejected = new HashMap<>();
+            writeReview(reviewId, snapshot, written, rejected);
+            settle(reviewId, written, rejected);
+        });
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+        int left = pendingVotes();
+        if (left > 0) {
+            log.error("Shutting down with {} buffered votes that could not be written", left);
+        }
+    }
+
+    public int pendingVotes() {
+        int count = 0;
+        for (Map<Long, PendingVote> votes : pending.values()) {
+            count += votes.size();
+        }
+        return count;
+    }
+
+    // Adds the votes that were committed to written and those the database refused to rejected, votes in
+    // neither stay pending for the next flush
+    private void writeReview(Long reviewId, Map<Long, PendingVote> votes,
+                             Map<Long, PendingVote> written, Map<Long, PendingVote> rejected) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(reviewId, votes));
+            written.putAll(votes);
+        } catch (DataIntegrityViolationException e) {
+            if (votes.size() > 1) { // find the rejected vote, the others still go through
+                votes.forEach((userId, vote) -> writeReview(reviewId, Map.of(userId, vote), written, rejected));
+                return;
+            }
+            log.error("Dropping buffered vote of user {} on review {}, the database rejected it: {}",
+                    votes.keySet().iterator().next(), reviewId, e.getMessage());
+            dropped.increment();
+            rejected.putAll(votes);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} buffered votes for review {}, retrying on the next flush: {}",
+                    votes.size(), reviewId, e.getMessage());
+        }
+    }
+
+    private void settle(Long reviewId, Map<Long, PendingVote> written, Map<Long, PendingVote> rejected) {
+        if (written.isEmpty() && rejected.isEmpty()) return;
+        pending.computeIfPresent(reviewId, (id, votes) -> {
+            written.forEach((userId, snapshot) -> {
+                PendingVote current = votes.get(userId);
+                if (current == snapshot) {
+                    votes.remove(userId); // no click since the snapshot
+                }
+                else if (current != null) {
+                    votes.put(userId, current.written(snapshot.desired));
+                }
+            });
+            rejected.forEach((userId, snapshot) -> votes.remove(userId, snapshot)); // a newer click gets its own try
+            return votes.isEmpty() ? null : votes;
+        });
+    }
+
+    // Diffs against the rows actually stored, so the write is right even if the in-memory baseline is stale
+    private void write(Long reviewId, Map<Long, PendingVote> votes) {
+        if (!reviewRepository.existsById(reviewId)) return; // review deleted meanwhile, its votes went with it
+        Map<Long, Vote> stored = new HashMap<>();
+        for (Vote vote : voteRepository.findByReviewIdAndUserIdIn(reviewId, votes.keySet())) {
+            stored.put(vote.getUser().getId(), vote);
+        }
+        List<Vote> inserts = new ArrayList<>();
+        List<Vote> deletes = new ArrayList<>();
+        int upvotes = 0;
+        int downvotes = 0;
+        for (Map.Entry<Long, PendingVote> entry : votes.entrySet()) {
+            Vote vote = stored.get(entry.getKey());
+            VoteType current = vote == null ? null : vote.getVoteType();
+            VoteType desired = entry.getValue().desired;
+            if (current == desired) continue;
+            upvotes += VoteService.countDelta(VoteType.UPVOTE, current, desired);
+            downvotes += VoteService.countDelta(VoteType.DOWNVOTE, current, desired);
+            if (vote == null) {
+                Vote newVote = new Vote();
+                newVote.setUser(userRepository.getReferenceById(entry.getKey()));
+                newVote.setReview(reviewRepository.getReferenceById(reviewId));
+                newVote.setVoteType(desired);
+                inserts.add(newVote);
+            }
+            else if (desired == null) {
+                deletes.add(vote);
+            }
+            else {
+                vote.setVoteType(desired); // flushed with the counter update below
+            }
+        }
+        voteRepository.saveAll(inserts);
+        voteRepository.deleteAllInBatch(deletes);
+        if (upvotes != 0 || downvotes != 0) {
+            reviewRepository.adjustVoteCounts(reviewId, upvotes, downvotes);
+            Optional<Integer> netVotes = reviewRepository.findNetVotes(reviewId); // empty if deleted meanwhile
+            if (netVotes.isPresent()
+                    && RagIngestionService.crossesIndexThreshold(netVotes.get() - upvotes + downvotes, netVotes.get())) {
+                eventPublisher.publishEvent(new ReviewChangedEvent(reviewId)); // delivered once the flush commits
+            }
+        }
+    }
+
+    private static final class PendingVote {
+        private final VoteType stored; // last vote known to be in the database, null for none
+        private final VoteType desired;
+
+        private PendingVote(VoteType stored, VoteType desired) {
+            this.stored = stored;
+            this.desired = desired;
+        }
+
+        PendingVote toggle(VoteType clicked) {
+            return new PendingVote(stored, desired == clicked ? null : clicked);
+        }
+
+        PendingVote written(VoteType nowStored) {
+            return new PendingVote(nowStored, desired);
+        }
+
+        int netChange() {
+            return net(desired) - net(stored);
+        }
+
+        private static int net(VoteType type) {
+            if (type == VoteType.UPVOTE) return 1;
+            if (type == VoteType.DOWNVOTE) return -1;
+            return 0;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.coursegrade.CourseGraderBackend.service;
 
+import com.coursegrade.CourseGraderBackend.dto.CourseFetchState;
 import com.coursegrade.CourseGraderBackend.model.College;
 import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -19,41 +24,56 @@ public class WebScraperService {
 
     private final CourseService courseService;
     private final CollegeRepository collegeRepository;
+    private final CourseSuggestionIndex courseSuggestionIndex;
+    private final CatalogCache catalogCache;
+    private final ScraperEngine scraperEngine;
+    private final ScrapedCourseWriter scrapedCourseWriter;
+
+    private static final Map<String, String> CATALOGS = new LinkedHashMap<>(); // course listing url -> college in course titles
+    static {
+        CATALOGS.put("https://www.bu.edu/academics/cas/courses/", "CAS"); // For College of Arts & Sciences
+        CATALOGS.put("https://www.bu.edu/academics/khc/courses/", "KHC"); // For Arvind & Chandan Nandlal Kilachand Honors College
+        CATALOGS.put("https://www.bu.edu/academics/hub/courses/", "HUB"); // For BU Hub
+        CATALOGS.put("https://www.bu.edu/academics/camed/courses/", "MED"); // For Chobanian & Avedisian School of Medicine
+        CATALOGS.put("https://www.bu.edu/academics/com/courses/", "COM"); // For College of Communications
+        CATALOGS.put("https://www.bu.edu/academics/eng/courses/", "ENG"); // For College of Engineering
+        CATALOGS.put("https://www.bu.edu/academics/cfa/courses/", "CFA"); // For College of Fine Arts
+        CATALOGS.put("https://www.bu.edu/academics/cgs/courses/", "CGS"); // For College of General Studies
+        CATALOGS.put("https://www.bu.edu/academics/cds/courses/", "CDS"); // For Faculty of Computing & Data Sciences
+        CATALOGS.put("https://www.bu.edu/academics/gms/courses/", "GMS"); // For Graduate Medical Sciences
+        CATALOGS.put("https://www.bu.edu/academics/grs/courses/", "CAS"); // For Graduate School of Arts & Sciences
+        CATALOGS.put("https://www.bu.edu/academics/sdm/courses/", "SDM"); // For Henry M. Goldman School of Dental Medicine
+        CATALOGS.put("https://www.bu.edu/academics/met/courses/", "MET"); // For Metropolitan College & Extended Education
+        CATALOGS.put("https://www.bu.edu/academics/questrom/courses/", "QST"); // For Questrom School of Business
+        CATALOGS.put("https://www.bu.edu/academics/sar/courses/", "SAR"); // For Sargent College of Health & Rehabilitation Sciences
+        CATALOGS.put("https://www.bu.edu/academics/sha/courses/", "SHA"); // For School of Hospitality Administration
+        CATALOGS.put("https://www.bu.edu/academics/law/courses/", "LAW"); // For School of Law
+        CATALOGS.put("https://www.bu.edu/academics/sph/courses/", "SPH"); // For School of Public Health
+        CATALOGS.put("https://www.bu.edu/academics/ssw/courses/", "SSW"); // For School of Social Work
+        CATALOGS.put("https://www.bu.edu/academics/sth/courses/", "STH"); // For School of Theology
+        CATALOGS.put("https://www.bu.edu/academics/wheelock/courses/", "WED"); // For Wheelock College of Education & Human Development
+    }
 
     public void wrapperScrape() {
+        long startTime = System.currentTimeMillis();
         scrapeMajors();
+        courseHubsAndDescription(scrapeCourseNames());
+        System.out.println("Full scrape finished in " + (System.currentTimeMillis() - startTime) / 1000 + " seconds");
+    }
+
+    /**
+     * Saves the courses of every college catalog and returns their urls.
+     */
+    public List<String> scrapeCourseNames() {
         List<String> courseUrls = new ArrayList<>();
-        courseNames(courseUrls, "https://www.bu.edu/academics/cas/courses/",  "CAS"); // For College of Arts & Sciences
-        courseNames(courseUrls, "https://www.bu.edu/academics/khc/courses/", "KHC"); // For Arvind & Chandan Nandlal Kilachand Honors College
-        courseNames(courseUrls, "https://www.bu.edu/academics/hub/courses/",  "HUB"); // For BU Hub
-        courseNames(courseUrls, "https://www.bu.edu/academics/camed/courses/", "MED"); // For Chobanian & Avedisian School of Medicine
-        courseNames(courseUrls, "https://www.bu.edu/academics/com/courses/", "COM"); // For College of Communications
-        courseNames(courseUrls, "https://www.bu.edu/academics/eng/courses/", "ENG"); // For College of Engineering
-        courseNames(courseUrls, "https://www.bu.edu/academics/cfa/courses/", "CFA"); // For College of Fine Arts
-        courseNames(courseUrls, "https://www.bu.edu/academics/cgs/courses/", "CGS"); // For College of General Studies
-        courseNames(courseUrls, "https://www.bu.edu/academics/cds/courses/", "CDS"); // For Faculty of Computing & Data Sciences
-        courseNames(courseUrls, "https://www.bu.edu/academics/gms/courses/", "GMS"); // For Graduate Medical Sciences
-        courseNames(courseUrls, "https://www.bu.edu/academics/grs/courses/", "CAS"); // For Graduate School of Arts & Sciences
-        courseNames(courseUrls, "https://www.bu.edu/academics/sdm/courses/", "SDM"); // For Henry M. Goldman School of Dental Medicine
-        courseNames(courseUrls, "https://www.bu.edu/academics/met/courses/", "MET"); // For Metropolitan College & Extended Education
-        courseNames(courseUrls, "https://www.bu.edu/academics/questrom/courses/", "QST"); // For Questrom School of Business
-        courseNames(courseUrls, "https://www.bu.edu/academics/sar/courses/", "SAR"); // For Sargent College of Health & Rehabilitation Sciences
-        courseNames(courseUrls, "https://www.bu.edu/academics/sha/courses/", "SHA"); // For School of Hospitality Administration
-        courseNames(courseUrls, "https://www.bu.edu/academics/law/courses/", "LAW"); // For School of Law
-        courseNames(courseUrls, "https://www.bu.edu/academics/sph/courses/", "SPH"); // For School of Public Health
-        courseNames(courseUrls, "https://www.bu.edu/academics/ssw/courses/", "SSW"); // For School of Social Work
-        courseNames(courseUrls, "https://www.bu.edu/academics/sth/courses/", "STH"); // For School of Theology
-        courseNames(courseUrls, "https://www.bu.edu/academics/wheelock/courses/", "WED"); // For Wheelock College of Education & Human Development
-        courseHubsAndDescription(courseUrls);
+        courseNames(courseUrls, CATALOGS);
+        return courseUrls;
     }
 
     @Transactional
     public void scrapeMajors() {
         try {
-            Document doc = Jsoup.connect("https://www.bu.edu/admissions/why-bu/academics/majors/")
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(120000)
-                    .get(); // 2 minute timeout.get();
+            Document doc = scraperEngine.fetch("https://www.bu.edu/admissions/why-bu/academics/majors/");
             Element majorsListContainer = doc.selectFirst("div.majors-list");
             if (majorsListContainer == null) {
                 System.out.println("Could not find majors-list container");
@@ -64,6 +84,7 @@ public class WebScraperService {
             for (Element majorItem : majorListItems) {
                 addMajor(majorItem);
             }
+            catalogCache.evictColleges();
         } catch (IOException e) {
             System.out.println("Error connecting: " + e.getMessage());
         }
@@ -99,42 +120,60 @@ public class WebScraperService {
         else return college.get();
     }
 
-    @Transactional
     public void courseNames(List<String> courseUrls, String baseUrl, String college) {
-        int numPages = getPageCount(baseUrl);
-        System.out.println("Number of pages: " + numPages);
-        for (int i = 1; i <= numPages; i++) { // replace with numPages when done testing
-            try {
-                Document doc = Jsoup.connect(baseUrl + Integer.toString(i))
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                        .timeout(120000)
-                        .get(); // 2 minute timeout.get();
-                doc.select("a").forEach(element -> {
-                    String title = element.text();
-                    String href = element.attr("href");
-                    if ((title.contains(college) || title.contains("GMS")) && href.contains("/courses/")) {
-                        String fullUrl = "https://www.bu.edu" + href;
-                        courseUrls.add(fullUrl);
-                        System.out.println(title);
-                        courseDetailsSave(title, fullUrl);
-                    }
-                });
-            } catch (IOException e) {
-                System.out.println("Error connecting: " + e.getMessage());
+        courseNames(courseUrls, Map.of(baseUrl, college));
+    }
+
+    /**
+     * Saves every course linked from the listing pages of the given catalogs and collects their urls.
+     * Page counts, then all listing pages, are fetched concurrently by the scraper engine. A course
+     * linked from several catalogs (GMS courses are) is saved and collected once.
+     */
+    public void courseNames(List<String> courseUrls, Map<String, String> catalogs) {
+        Map<String, Integer> pageCounts = new ConcurrentHashMap<>();
+        scraperEngine.forEach(catalogs.keySet(), baseUrl -> pageCounts.put(baseUrl, getPageCount(baseUrl)));
+        List<ListingPage> pages = new ArrayList<>();
+        for (Map.Entry<String, String> catalog : catalogs.entrySet()) {
+            int numPages = pageCounts.getOrDefault(catalog.getKey(), 1);
+            System.out.println("Number of pages: " + numPages + " in " + catalog.getKey());
+            for (int i = 1; i <= numPages; i++) {
+                pages.add(new ListingPage(catalog.getKey(), catalog.getValue(), i));
             }
-            System.out.println("Scraping page " + i + " of " + numPages);
-            threadSleeper();
         }
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        List<String> found = Collections.synchronizedList(new ArrayList<>());
+        scraperEngine.forEach(pages, page -> scrapeListingPage(page, seen, found));
+        scrapedCourseWriter.flush();
+        courseUrls.addAll(found);
         System.out.println("All course names scraped");
-        System.out.println("Number of courses: " +courseUrls.size());
+        System.out.println("Number of courses: " + courseUrls.size());
+        courseSuggestionIndex.rebuild(); // make the new courses suggestable
+        catalogCache.evictDepartments();
+    }
+
+    private void scrapeListingPage(ListingPage page, Set<String> seen, List<String> courseUrls) {
+        try {
+            Document doc = scraperEngine.fetch(page.baseUrl() + page.number());
+            doc.select("a").forEach(element -> {
+                String title = element.text();
+                String href = element.attr("href");
+                if ((title.contains(page.college()) || title.contains("GMS")) && href.contains("/courses/")) {
+                    String fullUrl = "https://www.bu.edu" + href;
+                    if (!seen.add(fullUrl)) return;
+                    courseUrls.add(fullUrl);
+                    System.out.println(title);
+                    courseDetailsSave(title, fullUrl);
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Error connecting: " + e.getMessage());
+        }
+        System.out.println("Scraped page " + page.number() + " of " + page.baseUrl());
     }
 
     public int getPageCount(String baseUrl) {
         try {
-            Document doc = Jsoup.connect(baseUrl)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(120000)
-                    .get(); // 2 minute timeout.get();
+            Document doc = scraperEngine.fetch(baseUrl);
             Elements paginationDiv = doc.select("div.pagination");
             if (paginationDiv.isEmpty()) {
                 return 1; // Assume a single page when no div for pagination
@@ -156,48 +195,82 @@ public class WebScraperService {
         return 1;
     }
 
-    @Transactional
+    /**
+     * Fetches each course page conditionally with the validators from the last scrape. The course is
+     * only written when the server sends a new page and its hub list or description actually changed.
+     */
     public void courseHubsAndDescription(List<String> courseUrls) {
-        for (String courseUrl : courseUrls) {
-            try {
-                Document doc = Jsoup.connect(courseUrl)
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                        .timeout(120000)
-                        .get(); // 2 minute timeout.get();
-                System.out.println("Course: " + courseUrl);
-                List<String> hubNames = new ArrayList<>();
-                doc.select("ul.cf-hub-offerings li").forEach(element -> {
-                    String hub = element.text();
-                    System.out.println("Hub: " + hub);
-                    hubNames.add(hub);
-                });
-                String description = null;
-                Element courseContentDiv = doc.getElementById("course-content");
-                if (courseContentDiv != null) {
-                    Element firstParagraph = courseContentDiv.selectFirst("p");
-                    if (firstParagraph != null) {
-                        description = firstParagraph.text();
-                        System.out.println("Description: " + description);
-                    }
+        Map<String, CourseFetchState> fetchStates = courseService.getFetchStates();
+        AtomicInteger updated = new AtomicInteger();
+        scraperEngine.forEach(courseUrls, courseUrl -> {
+            if (courseHubAndDescription(courseUrl, fetchStates.get(courseUrl))) updated.incrementAndGet();
+        });
+        System.out.println("All course hubs scraped, " + updated.get() + " of " + courseUrls.size() + " courses changed");
+    }
+
+    private boolean courseHubAndDescription(String courseUrl, CourseFetchState fetchState) {
+        try {
+            ScraperEngine.FetchedPage page = fetchState == null
+                    ? scraperEngine.fetchIfChanged(courseUrl, null, null)
+                    : scraperEngine.fetchIfChanged(courseUrl, fetchState.getEtag(), fetchState.getLastModified());
+            if (page.notModified()) {
+                return false;
+            }
+            Document doc = page.document();
+            System.out.println("Course: " + courseUrl);
+            List<String> hubNames = new ArrayList<>();
+            doc.select("ul.cf-hub-offerings li").forEach(element -> {
+                String hub = element.text();
+                System.out.println("Hub: " + hub);
+                hubNames.add(hub);
+            });
+            String description = null;
+            Element courseContentDiv = doc.getElementById("course-content");
+            if (courseContentDiv != null) {
+                Element firstParagraph = courseContentDiv.selectFirst("p");
+                if (firstParagraph != null) {
+                    description = firstParagraph.text();
+                    System.out.println("Description: " + description);
                 }
-                courseService.updateCourseWithHubReqsAndDescription(courseUrl, hubNames, description);
-            } catch (IOException e) {
-                System.out.println("Error connecting: " + e.getMessage());
             }
-            threadSleeper();
+            String contentHash = contentHash(hubNames, description);
+            if (fetchState != null && contentHash.equals(fetchState.getContentHash())) {
+                // page was re-served (new validators or none) but nothing we store changed
+                if (!Objects.equals(page.etag(), fetchState.getEtag())
+                        || !Objects.equals(page.lastModified(), fetchState.getLastModified())) {
+                    courseService.updateFetchValidators(courseUrl, page.etag(), page.lastModified());
+                }
+                return false;
+            }
+            courseService.updateCourseWithHubReqsAndDescription(courseUrl, hubNames, description,
+                    CourseFetchState.builder()
+                            .baseUrl(courseUrl)
+                            .etag(page.etag())
+                            .lastModified(page.lastModified())
+                            .contentHash(contentHash)
+                            .build());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error connecting: " + e.getMessage());
+            return false;
         }
-        System.out.println("All course hubs scraped");
     }
 
-    public void threadSleeper() {
+    /**
+     * SHA-256 of the scraped hub list and description, independent of the order hubs are listed in.
+     */
+    static String contentHash(List<String> hubNames, String description) {
+        List<String> sortedHubs = new ArrayList<>(hubNames);
+        Collections.sort(sortedHubs);
+        String content = String.join("\n", sortedHubs) + "\u0000" + (description == null ? "" : description);
         try {
-            Thread.sleep(1000); // 1-second delay to prevent overload
-        } catch (InterruptedException e) {
-            System.out.println("Sleep interrupted: " + e.getMessage());
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) { // every JVM ships SHA-256
+            throw new IllegalStateException(e);
         }
     }
 
-    @Transactional
     public void courseDetailsSave(String title, String url) {
         String[] sub = title.split(" ");
         System.out.println("College: " + sub[0]);
@@ -209,7 +282,10 @@ public class WebScraperService {
         String courseName = title.substring(firstColonInd + 2);
         System.out.println("Course name: " + courseName);
         System.out.println("College: " + sub[0] + " Department: " + sub[1] + " Course number: " + preCol[0] + " Department: " + courseName);
-        courseService.saveScrapedCourse(sub[0], sub[1], preCol[0], courseName, url);
-        System.out.println("Saved course in database");
+        scrapedCourseWriter.add(sub[0], sub[1], preCol[0], courseName, url);
+        System.out.println("Queued course for saving");
+    }
+
+    private record ListingPage(String baseUrl, String college, int number) {
     }
 }
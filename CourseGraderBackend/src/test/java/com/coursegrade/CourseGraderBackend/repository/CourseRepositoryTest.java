@@ -1,11 +1,16 @@
 package com.coursegrade.CourseGraderBackend.repository;
 
+import com.coursegrade.CourseGraderBackend.dto.CourseFacetsDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import com.coursegrade.CourseGraderBackend.service.CourseSearchIndex;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -13,6 +18,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -38,6 +44,22 @@ class CourseRepositoryTest {
         assertThat(found.get().getTitle()).isEqualTo("Data Structures");
     }
 
+    @Test
+    void findDepartmentsByCollege_ShouldReturnDistinctSortedDepartments() {
+        // Given
+        entityManager.persist(createTestCourse("Data Structures", "CAS", "CS", "210"));
+        entityManager.persist(createTestCourse("Algorithms", "CAS", "CS", "330"));
+        entityManager.persist(createTestCourse("Calculus", "CAS", "MA", "123"));
+        entityManager.persist(createTestCourse("Art History", "CAS", "AH", "111"));
+        entityManager.persistAndFlush(createTestCourse("Mechanics", "ENG", "ME", "303"));
+
+        // When
+        List<String> departments = courseRepository.findDepartmentsByCollege("CAS");
+
+        // Then
+        assertThat(departments).containsExactly("AH", "CS", "MA");
+    }
+
     @Test
     void findByHubRequirementsIn_ShouldReturnCoursesWithMatchingRequirements() {
         // Given
@@ -59,6 +81,146 @@ class CourseRepositoryTest {
                 .containsExactlyInAnyOrder("Calculus", "Physics");
     }
 
+    @Test
+    void searchCourses_WithFiltersAndCourseCodeSort_ShouldPageInDatabase() {
+        // Given
+        Course intro = createTestCourse("Introduction to Computer Science", "CAS", "CS", "111");
+        intro.setHubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT));
+        intro.setAverageOverallRating(4.2);
+        Course basics = createTestCourse("Computing Basics", "CAS", "CS", "99");
+        basics.setHubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT));
+        basics.setAverageOverallRating(3.5);
+        Course algorithms = createTestCourse("Algorithms", "CAS", "CS", "330");
+        algorithms.setHubRequirements(Set.of(HubRequirement.QR2));
+        algorithms.setAverageOverallRating(4.8);
+        Course engineering = createTestCourse("Computational Methods", "ENG", "EK", "103");
+        engineering.setHubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT));
+        engineering.setAverageOverallRating(4.0);
+        entityManager.persist(intro);
+        entityManager.persist(basics);
+        entityManager.persist(algorithms);
+        entityManager.persistAndFlush(engineering);
+        entityManager.clear();
+
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .colleges(Set.of("CAS"))
+                .hubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT))
+                .sortBy("byCourseCode")
+                .build();
+
+        // When
+        Page<Course> firstPage = courseRepository.searchCourses(criteria, PageRequest.of(0, 1));
+        Page<Course> rated = courseRepository.searchCourses(CourseSearchCriteria.builder()
+                .minRating(4.0).searchQuery("comput").sortBy("byRating").build(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(firstPage.getTotalElements()).isEqualTo(2);
+        assertThat(firstPage.getContent()).extracting(Course::getCourseCode).containsExactly("99");
+        assertThat(firstPage.getContent().get(0).getHubRequirements()).hasSize(2);
+        assertThat(rated.getContent()).extracting(Course::getTitle)
+                .containsExactly("Introduction to Computer Science", "Computational Methods");
+    }
+
+    @Test
+    void searchCourses_SuffixedCourseCodes_ShouldSortLikeTheSearchIndex() {
+        // Given
+        List<String> codes = List.of("111A", "99A", "111", "SEM", "099", "99", "330");
+        for (String code : codes) {
+            entityManager.persist(createTestCourse("Course " + code, "CAS", "CS", code));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<String> indexOrder = codes.stream().sorted(CourseSearchIndex::compareCourseCodes).toList();
+
+        // When
+        Page<Course> page = courseRepository.searchCourses(CourseSearchCriteria.builder()
+                .sortBy("byCourseCode").build(), PageRequest.of(0, 10));
+
+        // Then - "099" and "99" tie on the number and keep id order
+        assertThat(page.getContent()).extracting(Course::getCourseCode)
+                .containsExactly("099", "99", "99A", "111", "111A", "330", "SEM");
+        assertThat(indexOrder).containsExactly("099", "99", "99A", "111", "111A", "330", "SEM");
+    }
+
+    @Test
+    void searchFacets_WithFilters_ShouldRollUpGroupedCounts() {
+        // Given
+        Course intro = createTestCourse("Introduction to Computer Science", "CAS", "CS", "111");
+        intro.setHubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT));
+        intro.setAverageOverallRating(4.2);
+        Course algorithms = createTestCourse("Algorithms", "CAS", "CS", "330");
+        algorithms.setHubRequirements(Set.of(HubRequirement.QR2));
+        algorithms.setAverageOverallRating(5.0);
+        Course calculus = createTestCourse("Calculus", "CAS", "MA", "123");
+        calculus.setHubRequirements(Set.of(HubRequirement.QR2));
+        calculus.setAverageOverallRating(4.9);
+        Course engineering = createTestCourse("Computational Methods", "ENG", "EK", "103");
+        engineering.setHubRequirements(Set.of(HubRequirement.CRT));
+        engineering.setAverageOverallRating(3.0);
+        entityManager.persist(intro);
+        entityManager.persist(algorithms);
+        entityManager.persist(calculus);
+        entityManager.persistAndFlush(engineering);
+        entityManager.clear();
+
+        // When
+        CourseFacetsDTO facets = courseRepository.searchFacets(CourseSearchCriteria.builder()
+                .hubRequirements(Set.of(HubRequirement.QR2))
+                .build());
+
+        // Then - engineering lacks QR2, ratings bucket by their floor like the in-memory index
+        assertThat(facets.getColleges()).containsExactly(entry("CAS", 3L));
+        assertThat(facets.getDepartments()).containsExactly(entry("CS", 2L), entry("MA", 1L));
+        assertThat(facets.getHubRequirements()).containsOnly(entry("QR2", 3L), entry("CRT", 1L));
+        assertThat(facets.getRatings()).containsExactly(entry("4", 2L), entry("5", 1L));
+    }
+
+    @Test
+    void searchCourses_SortByRelevance_ShouldPageInRankedOrder() {
+        // Given
+        Course calculus = entityManager.persist(createTestCourse("Calculus", "CAS", "MA", "123"));
+        Course algorithms = entityManager.persist(createTestCourse("Algorithms", "CAS", "CS", "330"));
+        Course engineering = entityManager.persistAndFlush(createTestCourse("Computational Methods", "ENG", "EK", "103"));
+        entityManager.clear();
+
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .colleges(Set.of("CAS"))
+                .rankedMatchIds(List.of(engineering.getId(), algorithms.getId(), calculus.getId()))
+                .sortBy("byRelevance")
+                .build();
+
+        // When
+        Page<Course> result = courseRepository.searchCourses(criteria, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Course::getTitle).containsExactly("Algorithms", "Calculus");
+    }
+
+    @Test
+    void applyRatingDelta_AddThenRemoveReview_ShouldKeepTotalsAndAverages() {
+        // Given
+        Course course = createTestCourse("Data Structures", "CAS", "CS", "210");
+        course.setTotalReviews(0);
+        Long courseId = entityManager.persistAndFlush(course).getId();
+
+        // When - two reviews (usefulness, difficulty, workload, interest, teacher), then the first is deleted
+        courseRepository.applyRatingDelta(courseId, 1, 5, 4, 3, 4, 5);
+        courseRepository.applyRatingDelta(courseId, 1, 3, 2, 4, 5, 4);
+        Course twoReviews = courseRepository.findById(courseId).orElseThrow();
+        courseRepository.applyRatingDelta(courseId, -1, -5, -4, -3, -4, -5);
+        Course oneReview = courseRepository.findById(courseId).orElseThrow();
+
+        // Then
+        assertThat(twoReviews.getTotalReviews()).isEqualTo(2);
+        assertThat(twoReviews.getUsefulnessRatingSum()).isEqualTo(8L);
+        assertThat(twoReviews.getAverageWorkloadRating()).isEqualTo(3.5);
+        assertThat(twoReviews.getAverageOverallRating()).isEqualTo(3.7); // (24 - 6 - 7 + 9 + 8 + 9) / 10
+        assertThat(oneReview.getTotalReviews()).isEqualTo(1);
+        assertThat(oneReview.getAverageDifficultyRating()).isEqualTo(2.0);
+        assertThat(oneReview.getAverageOverallRating()).isEqualTo(3.6); // ((6-2) + (6-4) + 5 + 3 + 4) / 5
+    }
+
     @Test
     void courseDisplay_ShouldReturnFormattedString() {
         // Given
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
@@ -42,6 +43,33 @@ class ReviewRepositoryTest {
         assertThat(reviews.get(0).getTeacherName()).isEqualTo("Dr. UPPERCASE");
     }
 
+    @Test
+    void findPageByCourseAfter_ShouldContinueBelowCursorIncludingTies() {
+        // Given - two reviews share a timestamp, so the id breaks the tie
+        Course course = createAndSaveTestCourse("Keyset Course", "CAS", "CS", "101");
+        LocalDateTime noon = LocalDateTime.of(2024, 10, 1, 12, 0);
+        Review older = createTestReview(course, createAndSaveTestUser("older@email.com"), "Dr. A", 4, 3, 3, 4, 5);
+        older.setCreatedAt(noon.minusDays(1));
+        Review tieLow = createTestReview(course, createAndSaveTestUser("tielow@email.com"), "Dr. B", 4, 3, 3, 4, 5);
+        tieLow.setCreatedAt(noon);
+        Review tieHigh = createTestReview(course, createAndSaveTestUser("tiehigh@email.com"), "Dr. A", 4, 3, 3, 4, 5);
+        tieHigh.setCreatedAt(noon);
+        reviewRepository.save(older);
+        reviewRepository.save(tieLow);
+        reviewRepository.save(tieHigh);
+
+        // When
+        List<Review> firstPage = reviewRepository.findPageByCourse(course, PageRequest.of(0, 1));
+        List<Review> rest = reviewRepository.findPageByCourseAfter(course, noon, tieHigh.getId(), PageRequest.of(0, 10));
+        List<Review> teacherRest = reviewRepository.findPageByCourseAndTeacherAfter(
+                course, "Dr. A", noon, tieHigh.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(firstPage).containsExactly(tieHigh);
+        assertThat(rest).containsExactly(tieLow, older);
+        assertThat(teacherRest).containsExactly(older);
+    }
+
     @Test
     void getNetReviewScore_ShouldCalculateCorrectly() {
         // Given
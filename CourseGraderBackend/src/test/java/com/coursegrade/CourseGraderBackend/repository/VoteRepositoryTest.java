@@ -10,6 +10,7 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
@@ -19,6 +20,9 @@ class VoteRepositoryTest {
     @Autowired
     private VoteRepository voteRepository;
 
+    @Autowired
+    private ReviewRepository reviewRepository;
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -55,6 +59,34 @@ class VoteRepositoryTest {
         }).isInstanceOf(DataIntegrityViolationException.class);
     }
 
+    @Test
+    void conditionalTransitions_ShouldOnlyApplyToTheTypeThatWasRead() {
+        // Given
+        User user = entityManager.persistAndFlush(createTestUser("voter@email.com"));
+        Course course = entityManager.persistAndFlush(createTestCourse("Voting Course", "CAS", "CS", "102"));
+        Review review = entityManager.persistAndFlush(createTestReview(course, user, "Dr. Vote", 4, 3, 3, 4, 5));
+        Vote vote = voteRepository.saveAndFlush(Vote.builder()
+                .user(user)
+                .review(review)
+                .voteType(VoteType.UPVOTE)
+                .build());
+        reviewRepository.adjustVoteCounts(review.getId(), 1, 0);
+
+        // When - a stale request still thinks the vote is a downvote
+        int stale = voteRepository.changeTypeIfCurrent(vote.getId(), VoteType.DOWNVOTE, VoteType.UPVOTE);
+        int changed = voteRepository.changeTypeIfCurrent(vote.getId(), VoteType.UPVOTE, VoteType.DOWNVOTE);
+        reviewRepository.adjustVoteCounts(review.getId(), -1, 1);
+        int staleDelete = voteRepository.deleteIfType(vote.getId(), VoteType.UPVOTE);
+
+        // Then
+        assertThat(stale).isZero();
+        assertThat(changed).isEqualTo(1);
+        assertThat(staleDelete).isZero();
+        assertThat(voteRepository.findById(vote.getId())).get()
+                .extracting(Vote::getVoteType).isEqualTo(VoteType.DOWNVOTE);
+        assertThat(reviewRepository.findNetVotes(review.getId())).contains(-1);
+    }
+
     private User createTestUser(String email) {
         User user = new User();
         user.setEmail(email);
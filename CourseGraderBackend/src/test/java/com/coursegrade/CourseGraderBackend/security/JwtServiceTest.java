@@ -0,0 +1,100 @@
+package com.coursegrade.CourseGraderBackend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = createJwtService(86400000L, 2);
+    }
+
+    @Test
+    void extractAllClaims_SameTokenTwice_ShouldVerifyOnceAndReuseClaims() {
+        // Given
+        String token = jwtService.generateToken(createUserDetails("test@example.com"));
+
+        // When
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("test@example.com");
+        assertThat(jwtService.isTokenValid(first, createUserDetails("test@example.com"))).isTrue();
+        assertThat(jwtService.isTokenValid(first, createUserDetails("other@example.com"))).isFalse();
+        assertThat(jwtService.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void extractAllClaims_MoreTokensThanCacheSize_ShouldEvictLeastRecentlyUsed() {
+        // Given - cache holds two tokens
+        String first = jwtService.generateToken(createUserDetails("first@example.com"));
+        String second = jwtService.generateToken(createUserDetails("second@example.com"));
+        String third = jwtService.generateToken(createUserDetails("third@example.com"));
+        Claims firstClaims = jwtService.extractAllClaims(first);
+        jwtService.extractAllClaims(second);
+        jwtService.extractAllClaims(first); // first is now the most recently used
+
+        // When
+        jwtService.extractAllClaims(third);
+
+        // Then
+        assertThat(jwtService.cachedTokens()).isEqualTo(2);
+        assertThat(jwtService.extractAllClaims(first)).isSameAs(firstClaims);
+    }
+
+    @Test
+    void extractAllClaims_TamperedToken_ShouldThrowException() {
+        // Given
+        String token = jwtService.generateToken(createUserDetails("test@example.com"));
+        int signature = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + replacement + token.substring(signature + 1);
+
+        // When & Then
+        assertThatThrownBy(() -> jwtService.extractAllClaims(tampered)).isInstanceOf(JwtException.class);
+        assertThat(jwtService.cachedTokens()).isZero();
+    }
+
+    @Test
+    void extractAllClaims_ExpiredToken_ShouldThrowException() {
+        // Given - tokens expire a second before they are issued
+        JwtService expiring = createJwtService(-1000L, 2);
+        String token = expiring.generateToken(createUserDetails("test@example.com"));
+
+        // When & Then
+        assertThatThrownBy(() -> expiring.extractAllClaims(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(expiring.cachedTokens()).isZero();
+    }
+
+    // Helper methods
+    private JwtService createJwtService(long expiration, int cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", "testSecretKeyThatIsLongEnoughForHS256Algorithm");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "claimsCacheSize", cacheSize);
+        service.init();
+        return service;
+    }
+
+    private UserDetails createUserDetails(String email) {
+        return User.withUsername(email)
+                .password("password")
+                .authorities(List.of())
+                .build();
+    }
+}
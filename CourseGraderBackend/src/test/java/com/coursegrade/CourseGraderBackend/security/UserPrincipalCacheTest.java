@@ -0,0 +1,97 @@
+package com.coursegrade.CourseGraderBackend.security;
+
+import com.coursegrade.CourseGraderBackend.model.Role;
+import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserPrincipalCache userPrincipalCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userPrincipalCache, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(userPrincipalCache, "jwtExpiration", 86400000L);
+    }
+
+    @Test
+    void resolve_CurrentToken_ShouldBuildPrincipalFromClaimsWithoutDatabase() {
+        // Given
+        Claims claims = createClaims(1L, "ADMIN", new Date());
+
+        // When
+        User principal = userPrincipalCache.resolve(claims);
+
+        // Then
+        assertThat(principal.getId()).isEqualTo(1L);
+        assertThat(principal.getUsername()).isEqualTo("test@example.com");
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        assertThat(principal.isEnabled()).isTrue();
+        assertThat(userPrincipalCache.resolve(claims)).isSameAs(principal);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void resolve_TokenIssuedBeforeInvalidation_ShouldLoadUserFromDatabase() {
+        // Given - role changed after the token was issued
+        Claims claims = createClaims(1L, "ADMIN", new Date(System.currentTimeMillis() - 5000));
+        userPrincipalCache.resolve(claims);
+        User storedUser = new User();
+        storedUser.setId(1L);
+        storedUser.setEmail("test@example.com");
+        storedUser.setRole(Role.STUDENT);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(storedUser));
+
+        // When
+        userPrincipalCache.invalidate(1L);
+        User principal = userPrincipalCache.resolve(claims);
+
+        // Then
+        assertThat(principal).isSameAs(storedUser);
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_STUDENT");
+    }
+
+    @Test
+    void resolve_DeletedUser_ShouldReturnNull() {
+        // Given
+        Claims claims = createClaims(1L, "STUDENT", new Date(System.currentTimeMillis() - 5000));
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        userPrincipalCache.invalidate(1L);
+
+        // Then
+        assertThat(userPrincipalCache.resolve(claims)).isNull();
+    }
+
+    // Helper methods
+    private Claims createClaims(Long userId, String role, Date issuedAt) {
+        Claims claims = Jwts.claims();
+        claims.setSubject("test@example.com");
+        claims.setIssuedAt(issuedAt);
+        claims.put(JwtService.USER_ID_CLAIM, userId.intValue()); // small ids come back from parsing as Integer
+        claims.put(JwtService.ROLE_CLAIM, role);
+        claims.put(JwtService.ENABLED_CLAIM, true);
+        return claims;
+    }
+}
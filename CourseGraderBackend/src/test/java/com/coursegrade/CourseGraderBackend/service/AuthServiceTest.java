@@ -6,6 +6,7 @@ import com.coursegrade.CourseGraderBackend.repository.PasswordResetTokenReposito
 import com.coursegrade.CourseGraderBackend.repository.UserRepository;
 import com.coursegrade.CourseGraderBackend.repository.VerificationTokenRepository;
 import com.coursegrade.CourseGraderBackend.security.JwtService;
+import com.coursegrade.CourseGraderBackend.security.UserPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +43,9 @@ class AuthServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @Mock
     private EmailService emailService; // Used indirectly by the AuthService method, fails without
 
@@ -185,6 +189,7 @@ class AuthServiceTest {
         verify(passwordResetTokenRepository).delete(validToken);
         verify(passwordEncoder).encode("newPassword123");
         verify(userRepository).save(testUser);
+        verify(userPrincipalCache).invalidate(testUser.getId());
         assertThat(testUser.getPassword()).isEqualTo("encodedNewPassword");
     }
 
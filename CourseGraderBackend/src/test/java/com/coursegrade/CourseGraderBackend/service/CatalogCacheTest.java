@@ -0,0 +1,48 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CatalogCacheTest {
+
+    private CacheManager cacheManager;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(
+                CatalogCache.COLLEGES, CatalogCache.COLLEGE_MAJORS, CatalogCache.COLLEGE_DEPARTMENTS);
+        catalogCache = new CatalogCache(cacheManager);
+        cacheManager.getCache(CatalogCache.COLLEGES).put("all", Set.of("College of Arts & Sciences"));
+        cacheManager.getCache(CatalogCache.COLLEGE_MAJORS).put("College of Arts & Sciences", Set.of("Undecided"));
+        cacheManager.getCache(CatalogCache.COLLEGE_DEPARTMENTS).put("CAS", List.of("CS", "MA"));
+    }
+
+    @Test
+    void evictColleges_ShouldClearCollegesAndMajorsOnly() {
+        // When
+        catalogCache.evictColleges();
+
+        // Then
+        assertThat(cacheManager.getCache(CatalogCache.COLLEGES).get("all")).isNull();
+        assertThat(cacheManager.getCache(CatalogCache.COLLEGE_MAJORS).get("College of Arts & Sciences")).isNull();
+        assertThat(cacheManager.getCache(CatalogCache.COLLEGE_DEPARTMENTS).get("CAS")).isNotNull();
+    }
+
+    @Test
+    void evictDepartments_ShouldClearDepartmentsOnly() {
+        // When
+        catalogCache.evictDepartments();
+
+        // Then
+        assertThat(cacheManager.getCache(CatalogCache.COLLEGE_DEPARTMENTS).get("CAS")).isNull();
+        assertThat(cacheManager.getCache(CatalogCache.COLLEGES).get("all")).isNotNull();
+    }
+}
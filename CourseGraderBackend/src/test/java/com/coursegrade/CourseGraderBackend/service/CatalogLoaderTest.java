@@ -0,0 +1,106 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseFetchState;
+import com.coursegrade.CourseGraderBackend.model.ScrapeCheckpoint;
+import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ScrapeCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogLoaderTest {
+
+    @Mock
+    private WebScraperService webScraperService;
+
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CollegeRepository collegeRepository;
+
+    @Mock
+    private ScrapeCheckpointRepository checkpointRepository;
+
+    @InjectMocks
+    private CatalogLoader catalogLoader;
+
+    @Test
+    void isLoadNeeded_UnfinishedCheckpoints_ShouldResumeEvenWithFullCatalog() {
+        // Given - course names were saved before the server stopped
+        when(checkpointRepository.count()).thenReturn(3L);
+
+        // When & Then
+        assertThat(catalogLoader.isLoadNeeded()).isTrue();
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void isLoadNeeded_CompleteCatalog_ShouldNotLoad() {
+        // Given
+        when(checkpointRepository.count()).thenReturn(0L);
+        when(collegeRepository.count()).thenReturn(12L);
+        when(courseRepository.count()).thenReturn(8000L);
+
+        // When & Then
+        assertThat(catalogLoader.isLoadNeeded()).isFalse();
+    }
+
+    @Test
+    void load_AfterCourseNamesCheckpoint_ShouldOnlyScrapeMissingDetails() {
+        // Given
+        when(checkpointRepository.existsById(anyString())).thenReturn(true);
+        when(courseService.getFetchStates()).thenReturn(Map.of(
+                "https://www.bu.edu/academics/cas/courses/cas-cs-111/", createFetchState("https://www.bu.edu/academics/cas/courses/cas-cs-111/", "abc"),
+                "https://www.bu.edu/academics/cas/courses/cas-cs-112/", createFetchState("https://www.bu.edu/academics/cas/courses/cas-cs-112/", null)));
+
+        // When
+        catalogLoader.load();
+
+        // Then
+        verify(webScraperService, never()).scrapeMajors();
+        verify(webScraperService, never()).scrapeCourseNames();
+        verify(webScraperService).courseHubsAndDescription(List.of("https://www.bu.edu/academics/cas/courses/cas-cs-112/"));
+        verify(checkpointRepository).deleteAll();
+        assertThat(catalogLoader.getState()).isEqualTo(CatalogLoader.State.READY);
+    }
+
+    @Test
+    void load_StepFails_ShouldKeepCheckpointsForResume() {
+        // Given
+        when(checkpointRepository.existsById(anyString())).thenReturn(false);
+        doThrow(new RuntimeException("Database unavailable")).when(webScraperService).scrapeCourseNames();
+
+        // When
+        catalogLoader.load();
+
+        // Then
+        verify(checkpointRepository).save(argThat((ScrapeCheckpoint checkpoint) -> checkpoint.getStep().equals(CatalogLoader.MAJORS_STEP)));
+        verify(checkpointRepository, never()).save(argThat((ScrapeCheckpoint checkpoint) -> checkpoint.getStep().equals(CatalogLoader.COURSE_NAMES_STEP)));
+        verify(checkpointRepository, never()).deleteAll();
+        verify(webScraperService, never()).courseHubsAndDescription(any());
+        assertThat(catalogLoader.getState()).isEqualTo(CatalogLoader.State.FAILED);
+    }
+
+    // Helper methods
+    private CourseFetchState createFetchState(String url, String contentHash) {
+        return CourseFetchState.builder()
+                .baseUrl(url)
+                .contentHash(contentHash)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseRatingAggregatorTest {
+
+    @Mock
+    private CourseService courseService;
+
+    private MeterRegistry meterRegistry;
+    private CourseRatingAggregator courseRatingAggregator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        courseRatingAggregator = new CourseRatingAggregator(courseService, meterRegistry);
+    }
+
+    @Test
+    void flush_BurstOfReviewsOnOneCourse_ShouldApplySingleCoalescedDelta() {
+        // Given - three reviews created and one edited on course 1, one review on course 2
+        courseRatingAggregator.enqueueDelta(1L, 1, 5, 3, 4, 4, 5);
+        courseRatingAggregator.enqueueDelta(1L, 1, 3, 2, 4, 5, 4);
+        courseRatingAggregator.enqueueDelta(1L, 1, 4, 4, 4, 4, 4);
+        courseRatingAggregator.enqueueDelta(1L, 0, 0, 0, 0, 0, -2);
+        courseRatingAggregator.enqueueDelta(2L, 1, 1, 1, 1, 1, 1);
+
+        // When
+        assertThat(meterRegistry.get("ratings.aggregation.queue.depth").gauge().value()).isEqualTo(2.0);
+        courseRatingAggregator.flush();
+
+        // Then
+        verify(courseService).applyRatingDelta(1L, 3, 12, 9, 12, 13, 11);
+        verify(courseService).applyRatingDelta(2L, 1, 1, 1, 1, 1, 1);
+        assertThat(courseRatingAggregator.queueDepth()).isZero();
+        assertThat(meterRegistry.get("ratings.aggregation.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void flush_RecomputeQueued_ShouldAbsorbDeltasAndSkipCancelledOnes() {
+        // Given - course 1 gets a delta and a recompute, course 2 a review created then deleted
+        courseRatingAggregator.enqueueDelta(1L, 1, 5, 3, 4, 4, 5);
+        courseRatingAggregator.enqueueRecompute(1L);
+        courseRatingAggregator.enqueueDelta(2L, 1, 2, 2, 2, 2, 2);
+        courseRatingAggregator.enqueueDelta(2L, -1, -2, -2, -2, -2, -2);
+
+        // When
+        courseRatingAggregator.flush();
+
+        // Then
+        verify(courseService).updateCourseRatings(1L);
+        verify(courseService, never()).applyRatingDelta(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void flush_CourseUpdateFails_ShouldContinueWithOtherCourses() {
+        // Given
+        doThrow(new RuntimeException("Invalid course ID")).when(courseService).applyRatingDelta(1L, 1, 5, 3, 4, 4, 5);
+        courseRatingAggregator.enqueueDelta(1L, 1, 5, 3, 4, 4, 5);
+        courseRatingAggregator.enqueueRecompute(2L);
+
+        // When
+        courseRatingAggregator.flush();
+
+        // Then - failed course is dropped for the reconciler, not retried forever
+        verify(courseService).updateCourseRatings(2L);
+        assertThat(courseRatingAggregator.queueDepth()).isZero();
+    }
+
+    @Test
+    void flush_DatabaseError_ShouldRequeueDeltaMergedWithNewOnes() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("Database unavailable"))
+                .doNothing()
+                .when(courseService).applyRatingDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+        courseRatingAggregator.enqueueDelta(1L, 1, 5, 3, 4, 4, 5);
+
+        // When - a second review arrives before the retry
+        courseRatingAggregator.flush();
+        int afterFailure = courseRatingAggregator.queueDepth();
+        courseRatingAggregator.enqueueDelta(1L, 1, 1, 1, 1, 1, 1);
+        courseRatingAggregator.flush();
+
+        // Then
+        assertThat(afterFailure).isEqualTo(1);
+        verify(courseService).applyRatingDelta(1L, 2, 6, 4, 5, 5, 6);
+        assertThat(courseRatingAggregator.queueDepth()).isZero();
+    }
+}
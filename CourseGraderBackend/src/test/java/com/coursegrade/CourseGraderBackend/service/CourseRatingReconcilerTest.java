@@ -0,0 +1,67 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseRatingReconcilerTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private CourseRatingAggregator courseRatingAggregator;
+
+    @InjectMocks
+    private CourseRatingReconciler courseRatingReconciler;
+
+    @Test
+    void reconcile_DriftedTotals_ShouldOnlyRecomputeDriftedCourses() {
+        // Given - course 1 is in sync, course 2 lost a review, course 3 has no reviews but thinks it has one
+        Course inSync = createCourseWithTotals(1L, 2, 8, 6, 7, 9, 9);
+        Course missedReview = createCourseWithTotals(2L, 1, 5, 4, 3, 4, 5);
+        Course staleCount = createCourseWithTotals(3L, 1, 3, 3, 3, 3, 3);
+        when(reviewRepository.sumRatingsByCourse()).thenReturn(List.of(
+                new Object[]{1L, 2L, 8L, 6L, 7L, 9L, 9L},
+                new Object[]{2L, 2L, 8L, 6L, 7L, 9L, 9L}
+        ));
+        when(courseRepository.findAll()).thenReturn(List.of(inSync, missedReview, staleCount));
+
+        // When
+        int repaired = courseRatingReconciler.reconcile();
+
+        // Then - queued, so a delta still pending for the course is absorbed rather than added on top
+        assertThat(repaired).isEqualTo(2);
+        verify(courseRatingAggregator).enqueueRecompute(2L);
+        verify(courseRatingAggregator).enqueueRecompute(3L);
+        verify(courseRatingAggregator, never()).enqueueRecompute(1L);
+    }
+
+    // Helper methods
+    private Course createCourseWithTotals(Long id, int reviews, long usefulness, long difficulty,
+                                          long workload, long interest, long teacher) {
+        Course course = new Course();
+        course.setId(id);
+        course.setTotalReviews(reviews);
+        course.setUsefulnessRatingSum(usefulness);
+        course.setDifficultyRatingSum(difficulty);
+        course.setWorkloadRatingSum(workload);
+        course.setInterestRatingSum(interest);
+        course.setTeacherRatingSum(teacher);
+        return course;
+    }
+}
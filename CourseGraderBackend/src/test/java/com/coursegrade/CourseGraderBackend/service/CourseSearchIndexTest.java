@@ -0,0 +1,190 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseFacetsDTO;
+import com.coursegrade.CourseGraderBackend.dto.CourseSearchCriteria;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseSearchIndexTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @InjectMocks
+    private CourseSearchIndex courseSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Course> catalog = List.of(
+                createTestCourse(1L, "CAS", "CS", "111", "Introduction to Computer Science 1", 4.5, 10, true, Set.of(HubRequirement.QR2, HubRequirement.CRT)),
+                createTestCourse(2L, "CAS", "CS", "99", "Computing Basics", 3.2, 4, false, Set.of(HubRequirement.QR2)),
+                createTestCourse(3L, "CAS", "MA", "123", "Calculus I", 3.9, 25, true, Set.of(HubRequirement.QR2, HubRequirement.CRT)),
+                createTestCourse(4L, "ENG", "EK", "103", "Computational Linear Algebra", 0.0, 0, false, Set.of()),
+                createTestCourse(5L, "CAS", "CS", "111A", "Introduction to Computer Science Lab", 4.0, 2, true, Set.of(HubRequirement.QR2))
+        );
+        when(courseRepository.findAllWithHubRequirements()).thenReturn(catalog);
+    }
+
+    @Test
+    void search_WithCollegeAndAllHubs_ShouldIntersectPostings() {
+        // Given
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .colleges(Set.of("CAS"))
+                .hubRequirements(Set.of(HubRequirement.QR2, HubRequirement.CRT))
+                .sortBy("byCourseCode")
+                .build();
+
+        // When
+        Page<Course> result = courseSearchIndex.search(criteria, PageRequest.of(0, 10));
+
+        // Then - only courses with both hubs, numeric course code order
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Course::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void search_SortByCourseCode_ShouldCompareNumerically() {
+        // Given
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .departments(Set.of("CS"))
+                .sortBy("byCourseCode")
+                .build();
+
+        // When
+        Page<Course> result = courseSearchIndex.search(criteria, PageRequest.of(0, 10));
+
+        // Then - 99 before 111 before 111A
+        assertThat(result.getContent()).extracting(Course::getCourseCode).containsExactly("99", "111", "111A");
+    }
+
+    @Test
+    void search_MinRatingAndNoPreReqs_ShouldFilterByRatingBuckets() {
+        // Given
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .noPreReqs(true)
+                .minRating(4.0)
+                .sortBy("byRating")
+                .build();
+
+        // When
+        Page<Course> result = courseSearchIndex.search(criteria, PageRequest.of(0, 10));
+
+        // Then - 3.9 shares a bucket boundary check and is dropped
+        assertThat(result.getContent()).extracting(Course::getId).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void search_SearchQuery_ShouldMatchCourseDisplayOrTitle() {
+        // Given
+        CourseSearchCriteria byCode = CourseSearchCriteria.builder().searchQuery(" cs 111 ").build();
+        CourseSearchCriteria byTitle = CourseSearchCriteria.builder().searchQuery("comput").build();
+
+        // When
+        Page<Course> codeResult = courseSearchIndex.search(byCode, PageRequest.of(0, 10));
+        Page<Course> titleResult = courseSearchIndex.search(byTitle, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(codeResult.getContent()).extracting(Course::getId).containsExactly(1L, 5L);
+        assertThat(titleResult.getContent()).extracting(Course::getId).containsExactly(1L, 2L, 4L, 5L);
+    }
+
+    @Test
+    void search_SortByRelevance_ShouldKeepRankedOrderAndApplyFilters() {
+        // Given - ranked ids from the text index, 99L no longer exists in the catalog
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .searchQuery("comput")
+                .rankedMatchIds(List.of(4L, 99L, 2L, 1L, 5L))
+                .colleges(Set.of("CAS"))
+                .sortBy("byRelevance")
+                .build();
+
+        // When
+        Page<Course> result = courseSearchIndex.search(criteria, PageRequest.of(0, 2));
+
+        // Then
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting(Course::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void search_SecondPage_ShouldOnlyReturnRequestedSlice() {
+        // Given
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder().sortBy("byReviews").build();
+
+        // When
+        Page<Course> result = courseSearchIndex.search(criteria, PageRequest.of(1, 2));
+        Page<Course> pastEnd = courseSearchIndex.search(criteria, PageRequest.of(5, 2));
+
+        // Then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).extracting(Course::getId).containsExactly(2L, 5L);
+        assertThat(pastEnd.getContent()).isEmpty();
+        assertThat(pastEnd.getTotalElements()).isEqualTo(5);
+        verify(courseRepository, times(1)).findAllWithHubRequirements(); // built once, reused
+    }
+
+    @Test
+    void refreshCourse_RatingChange_ShouldMoveCourseBetweenBuckets() {
+        // Given
+        courseSearchIndex.search(new CourseSearchCriteria(), PageRequest.of(0, 1)); // build index
+        Course updated = createTestCourse(4L, "ENG", "EK", "103", "Computational Linear Algebra", 4.8, 1, false, Set.of());
+        when(courseRepository.findWithHubRequirementsById(4L)).thenReturn(Optional.of(updated));
+
+        // When
+        courseSearchIndex.refreshCourse(4L);
+        Page<Course> result = courseSearchIndex.search(
+                CourseSearchCriteria.builder().minRating(4.6).build(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).extracting(Course::getId).containsExactly(4L);
+        verify(courseRepository, times(1)).findAllWithHubRequirements(); // patched, not rebuilt
+    }
+
+    @Test
+    void facets_WithFilters_ShouldCountEveryFacetOverMatchingCourses() {
+        // Given
+        CourseSearchCriteria criteria = CourseSearchCriteria.builder()
+                .hubRequirements(Set.of(HubRequirement.QR2))
+                .build();
+
+        // When
+        CourseFacetsDTO facets = courseSearchIndex.facets(criteria);
+
+        // Then - courses 1, 2, 3 and 5 have QR2
+        assertThat(facets.getColleges()).containsExactly(entry("CAS", 4L));
+        assertThat(facets.getDepartments()).containsExactly(entry("CS", 3L), entry("MA", 1L));
+        assertThat(facets.getHubRequirements()).containsOnly(entry("QR2", 4L), entry("CRT", 2L));
+        assertThat(facets.getRatings()).containsExactly(entry("3", 2L), entry("4", 2L));
+    }
+
+    // Helper methods
+    private Course createTestCourse(Long id, String college, String department, String code, String title,
+                                    double rating, int reviews, boolean noPreReqs, Set<HubRequirement> hubs) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCollege(college);
+        course.setDepartment(department);
+        course.setCourseCode(code);
+        course.setTitle(title);
+        course.setAverageOverallRating(rating);
+        course.setTotalReviews(reviews);
+        course.setNoPreReqs(noPreReqs);
+        course.setHubRequirements(new HashSet<>(hubs));
+        return course;
+    }
+}
@@ -2,16 +2,22 @@ package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.CourseDisplayDTO;
 import com.coursegrade.CourseGraderBackend.dto.CourseDTO;
+import com.coursegrade.CourseGraderBackend.dto.ReviewPageDTO;
+import com.coursegrade.CourseGraderBackend.dto.ReviewResponseDTO;
 import com.coursegrade.CourseGraderBackend.model.*;
 import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -31,6 +37,15 @@ class CourseServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private CourseSearchIndex courseSearchIndex;
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CourseService courseService;
 
@@ -86,6 +101,8 @@ class CourseServiceTest {
         assertThat(testCourse.getAverageWorkloadRating()).isEqualTo(3.5); // (3+4)/2
         assertThat(testCourse.getAverageInterestRating()).isEqualTo(4.5); // (4+5)/2
         assertThat(testCourse.getAverageTeacherRating()).isEqualTo(4.5); // (5+4)/2
+        assertThat(testCourse.getUsefulnessRatingSum()).isEqualTo(8L); // running sums reset as well
+        verify(courseRepository, times(1)).save(testCourse);
     }
 
     @Test
@@ -118,24 +135,62 @@ class CourseServiceTest {
         assertThat(result).contains(HubRequirement.QR1, HubRequirement.ETR);
     }
 
+    @Test
+    void searchCourses2_RankedLookupFails_ShouldFallBackToIndexScan() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(courseRepository.searchRankedCourseIds("algorithms", 2000))
+                .thenThrow(new InvalidDataAccessResourceUsageException("function word_similarity does not exist"));
+        when(courseSearchIndex.search(any(), eq(pageable))).thenReturn(new PageImpl<>(List.of(testCourse), pageable, 1));
+
+        // When
+        Page<CourseDisplayDTO> shortQuery = courseService.searchCourses2(
+                null, null, null, null, null, "byRelevance", "cs", pageable);
+        Page<CourseDisplayDTO> longQuery = courseService.searchCourses2(
+                null, null, null, null, null, "byRelevance", "algorithms", pageable);
+
+        // Then
+        assertThat(shortQuery.getContent()).hasSize(1);
+        assertThat(longQuery.getContent()).hasSize(1);
+        verify(courseRepository, times(1)).searchRankedCourseIds(anyString(), anyInt()); // not for "cs"
+        verify(courseSearchIndex, times(2)).search(argThat(criteria -> criteria.getRankedMatchIds() == null), eq(pageable));
+    }
+
+    @Test
+    void searchCourses2_SortByCourseCode_ShouldMatchCodeAndTitleWithoutRankedLookup() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(courseSearchIndex.search(any(), eq(pageable))).thenReturn(new PageImpl<>(List.of(testCourse), pageable, 1));
+
+        // When
+        courseService.searchCourses2(null, null, null, null, null, "byCourseCode", "intro", pageable);
+
+        // Then - no capped id list, so every code or title match counts towards the total
+        verify(courseRepository, never()).searchRankedCourseIds(anyString(), anyInt());
+        verify(courseSearchIndex).search(argThat(criteria -> criteria.getRankedMatchIds() == null
+                && "intro".equals(criteria.getSearchQuery())), eq(pageable));
+    }
+
     @Test
     void convertToFullDTO_WithUserWhoReviewed_ShouldSetUserReviewedTrue() {
         // Given
         when(reviewRepository.findByCourseAndUser(testCourse, testUser)).thenReturn(Optional.of(testReview));
-        when(reviewRepository.findByCourseOrderByCreatedAtDesc(testCourse)).thenReturn(List.of(testReview));
+        when(reviewRepository.findPageByCourse(eq(testCourse), any(Pageable.class))).thenReturn(List.of(testReview));
 
         // When
         CourseDTO result = courseService.convertToFullDTO(testCourse, testUser);
 
         // Then
         assertThat(result.isUserReviewed()).isTrue();
+        assertThat(result.getReviews().getReviews()).hasSize(1);
+        assertThat(result.getReviews().isHasMore()).isFalse();
     }
 
     @Test
     void convertToFullDTO_WithUserWhoDidNotReview_ShouldSetUserReviewedFalse() {
         // Given
         when(reviewRepository.findByCourseAndUser(testCourse, testUser)).thenReturn(Optional.empty());
-        when(reviewRepository.findByCourseOrderByCreatedAtDesc(testCourse)).thenReturn(List.of());
+        when(reviewRepository.findPageByCourse(eq(testCourse), any(Pageable.class))).thenReturn(List.of());
 
         // When
         CourseDTO result = courseService.convertToFullDTO(testCourse, testUser);
@@ -147,7 +202,7 @@ class CourseServiceTest {
     @Test
     void convertToFullDTO_WithNullUser_ShouldSetUserReviewedFalse() {
         // Given
-        when(reviewRepository.findByCourseOrderByCreatedAtDesc(testCourse)).thenReturn(List.of());
+        when(reviewRepository.findPageByCourse(eq(testCourse), any(Pageable.class))).thenReturn(List.of());
 
         // When
         CourseDTO result = courseService.convertToFullDTO(testCourse, null);
@@ -156,7 +211,84 @@ class CourseServiceTest {
         assertThat(result.isUserReviewed()).isFalse();
     }
 
+    @Test
+    void getReviewPage_MoreReviewsThanPageSize_ShouldReturnCursorThatContinuesAfterLastReview() {
+        // Given - page size 2, repository returns one extra row
+        LocalDateTime now = LocalDateTime.of(2024, 10, 1, 12, 0);
+        Review newest = createReviewAt(30L, now);
+        Review middle = createReviewAt(20L, now.minusDays(1));
+        Review oldest = createReviewAt(10L, now.minusDays(2));
+        when(reviewRepository.findPageByCourse(testCourse, PageRequest.of(0, 3)))
+                .thenReturn(List.of(newest, middle, oldest));
+        when(reviewRepository.findPageByCourseAfter(testCourse, now.minusDays(1), 20L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(oldest));
+
+        // When
+        ReviewPageDTO firstPage = courseService.getReviewPage(testCourse, testUser, null, null, 2);
+        ReviewPageDTO secondPage = courseService.getReviewPage(testCourse, testUser, null, firstPage.getNextCursor(), 2);
+
+        // Then
+        assertThat(firstPage.getReviews()).extracting(ReviewResponseDTO::getId).containsExactly(30L, 20L);
+        assertThat(firstPage.isHasMore()).isTrue();
+        assertThat(secondPage.getReviews()).extracting(ReviewResponseDTO::getId).containsExactly(10L);
+        assertThat(secondPage.isHasMore()).isFalse();
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getReviewPage_WithTeacherAndInvalidCursor_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> courseService.getReviewPage(testCourse, testUser, "Dr. Smith", "not-a-cursor", 10))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid review cursor");
+        verifyNoInteractions(reviewRepository);
+    }
+
+    @Test
+    void convertToResponseDTOs_ShouldResolveUserVotesWithOneQuery() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 10, 1, 12, 0);
+        Review upvoted = createReviewAt(30L, now);
+        upvoted.setUpvoteCount(4);
+        upvoted.setDownvoteCount(1);
+        Review notVoted = createReviewAt(20L, now.minusDays(1));
+        Vote vote = new Vote();
+        vote.setUser(testUser);
+        vote.setReview(upvoted);
+        vote.setVoteType(VoteType.UPVOTE);
+        when(voteRepository.findByUserAndReviewIdIn(testUser, List.of(30L, 20L))).thenReturn(List.of(vote));
+
+        // When
+        List<ReviewResponseDTO> result = courseService.convertToResponseDTOs(List.of(upvoted, notVoted), testUser);
+
+        // Then
+        assertThat(result).extracting(ReviewResponseDTO::getUserVote).containsExactly(VoteType.UPVOTE, null);
+        assertThat(result.get(0).getUpvoteCount()).isEqualTo(4);
+        assertThat(result.get(0).getDownvoteCount()).isEqualTo(1);
+        verify(voteRepository, times(1)).findByUserAndReviewIdIn(any(), anyCollection());
+    }
+
+    @Test
+    void convertToResponseDTOs_WithNullUser_ShouldNotLookUpVotes() {
+        // When
+        List<ReviewResponseDTO> result = courseService.convertToResponseDTOs(
+                List.of(createReviewAt(30L, LocalDateTime.of(2024, 10, 1, 12, 0))), null);
+
+        // Then
+        assertThat(result.get(0).getUserVote()).isNull();
+        assertThat(result.get(0).isOwner()).isFalse();
+        verifyNoInteractions(voteRepository);
+    }
+
     // Helper methods
+    private Review createReviewAt(Long id, LocalDateTime createdAt) {
+        Review review = createReviewWithRatings(4, 3, 3, 4, 4);
+        review.setId(id);
+        review.setUser(testUser);
+        review.setCreatedAt(createdAt);
+        return review;
+    }
+
     private Course createTestCourse() {
         Course course = new Course();
         course.setId(1L);
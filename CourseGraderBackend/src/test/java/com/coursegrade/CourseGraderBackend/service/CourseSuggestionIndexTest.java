@@ -0,0 +1,95 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.CourseSuggestionDTO;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseSuggestionIndexTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @InjectMocks
+    private CourseSuggestionIndex courseSuggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(courseRepository.findAll()).thenReturn(List.of(
+                createTestCourse(1L, "CAS", "CS", "111", "Introduction to Computer Science 1", 40),
+                createTestCourse(2L, "CAS", "CS", "112", "Introduction to Computer Science 2", 25),
+                createTestCourse(3L, "CAS", "CS", "131", "Combinatoric Structures", 60),
+                createTestCourse(4L, "ENG", "EK", "125", "Introduction to Programming for Engineers", 5),
+                createTestCourse(5L, "CAS", "MA", "123", "Calculus I", 90)
+        ));
+        courseSuggestionIndex.rebuild();
+    }
+
+    @Test
+    void suggest_CoursePrefix_ShouldReturnMostReviewedFirst() {
+        // When
+        List<CourseSuggestionDTO> withCollege = courseSuggestionIndex.suggest("CAS CS 1", 10);
+        List<CourseSuggestionDTO> withoutCollege = courseSuggestionIndex.suggest("cs11", 10);
+
+        // Then
+        assertThat(withCollege).extracting(CourseSuggestionDTO::getDisplay)
+                .containsExactly("CAS CS 131", "CAS CS 111", "CAS CS 112");
+        assertThat(withoutCollege).extracting(CourseSuggestionDTO::getId).containsExactly("1", "2");
+    }
+
+    @Test
+    void suggest_TitleOrTitleWordPrefix_ShouldMatchCourses() {
+        // When
+        List<CourseSuggestionDTO> titleStart = courseSuggestionIndex.suggest("intro", 2);
+        List<CourseSuggestionDTO> midTitle = courseSuggestionIndex.suggest("computer sci", 10);
+
+        // Then
+        assertThat(titleStart).extracting(CourseSuggestionDTO::getId).containsExactly("1", "2"); // limited to 2
+        assertThat(midTitle).extracting(CourseSuggestionDTO::getTitle)
+                .containsExactly("Introduction to Computer Science 1", "Introduction to Computer Science 2");
+    }
+
+    @Test
+    void suggest_NoMatchOrBlankQuery_ShouldReturnEmpty() {
+        // When / Then
+        assertThat(courseSuggestionIndex.suggest("xyz", 10)).isEmpty();
+        assertThat(courseSuggestionIndex.suggest("   ", 10)).isEmpty();
+        verify(courseRepository, times(1)).findAll(); // served from memory
+    }
+
+    @Test
+    void suggest_QueryLongerThanIndexedKeys_ShouldOnlyMatchCoursesThatContainIt() {
+        // When - mid-title keys stop after 12 characters ("computer sci"), full titles run on
+        List<CourseSuggestionDTO> pastWordDepth = courseSuggestionIndex.suggest("computer science 2", 10);
+        List<CourseSuggestionDTO> mismatchPastWordDepth = courseSuggestionIndex.suggest("computer scizzz", 10);
+        List<CourseSuggestionDTO> mismatchInFullTitle = courseSuggestionIndex.suggest("introduction to zoology", 10);
+
+        // Then
+        assertThat(pastWordDepth).extracting(CourseSuggestionDTO::getId).containsExactly("2");
+        assertThat(mismatchPastWordDepth).isEmpty();
+        assertThat(mismatchInFullTitle).isEmpty();
+    }
+
+    // Helper methods
+    private Course createTestCourse(Long id, String college, String department, String code, String title, int reviews) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCollege(college);
+        course.setDepartment(department);
+        course.setCourseCode(code);
+        course.setTitle(title);
+        course.setTotalReviews(reviews);
+        return course;
+    }
+}
@@ -0,0 +1,94 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingPipelineTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    @Mock
+    private EmbeddingStore<TextSegment> embeddingStore;
+
+    private EmbeddingPipeline embeddingPipeline;
+
+    @BeforeEach
+    void setUp() {
+        embeddingPipeline = new EmbeddingPipeline(embeddingModel, embeddingStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(embeddingPipeline, "batchSize", 2);
+        ReflectionTestUtils.setField(embeddingPipeline, "workers", 2);
+        embeddingPipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddingPipeline.shutdown();
+    }
+
+    @Test
+    void ingest_ShouldEmbedAndWriteInBatches() {
+        // Given
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> embeddingsFor(invocation.getArgument(0)));
+        List<TextSegment> segments = createSegments(5);
+
+        // When
+        List<TextSegment> stored = embeddingPipeline.ingest(segments);
+
+        // Then - 2 + 2 + 1, one embedAll and one addAll per batch
+        assertThat(stored).containsExactlyElementsOf(segments);
+        verify(embeddingModel, times(3)).embedAll(anyList());
+        verify(embeddingStore, times(3)).addAll(anyList(), anyList());
+        verify(embeddingModel, never()).embed(any(TextSegment.class));
+    }
+
+    @Test
+    void ingest_BatchFails_ShouldStoreTheOtherBatches() {
+        // Given
+        List<TextSegment> segments = createSegments(4);
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> {
+            List<TextSegment> batch = invocation.getArgument(0);
+            if (batch.contains(segments.get(0))) throw new IllegalStateException("ONNX session failed");
+            return embeddingsFor(batch);
+        });
+
+        // When
+        List<TextSegment> stored = embeddingPipeline.ingest(segments);
+
+        // Then
+        assertThat(stored).containsExactlyElementsOf(segments.subList(2, 4));
+        verify(embeddingStore).addAll(anyList(), eq(segments.subList(2, 4)));
+    }
+
+    // Helper methods
+    private List<TextSegment> createSegments(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> TextSegment.from("Course: CAS CS " + (100 + i)))
+                .toList();
+    }
+
+    private Response<List<Embedding>> embeddingsFor(List<TextSegment> batch) {
+        return Response.from(batch.stream()
+                .map(segment -> Embedding.from(new float[]{1f, 0f}))
+                .toList());
+    }
+}
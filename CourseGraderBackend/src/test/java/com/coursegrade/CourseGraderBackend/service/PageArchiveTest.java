@@ -0,0 +1,74 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PageArchiveTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void replay_RecordedPage_ShouldServeItWithoutNetwork() throws Exception {
+        // Given - a recording run over a stand-in for bu.edu
+        String url = "https://www.bu.edu/academics/cas/courses/cas-cs-111/";
+        String html = "<div id=\"course-content\"><p>Introduction to programming — no prerequisites.</p></div>";
+        List<String> requested = new ArrayList<>();
+        PageFetcher site = (pageUrl, etag, lastModified) -> {
+            requested.add(pageUrl + " " + etag);
+            return new PageFetcher.Response(200, html, "\"v1\"", "Mon, 01 Sep 2025 00:00:00 GMT");
+        };
+        PageArchive archive = new PageArchive(archiveDir);
+        new RecordingPageFetcher(site, archive).fetch(url, "\"old\"", null);
+
+        // When
+        ReplayPageFetcher replay = new ReplayPageFetcher(new PageArchive(archiveDir));
+        PageFetcher.Response replayed = replay.fetch(url, null, null);
+
+        // Then - the recorder asked for the full page, replay returns it byte for byte
+        assertThat(requested).containsExactly(url + " null");
+        assertThat(replayed.statusCode()).isEqualTo(200);
+        assertThat(replayed.body()).isEqualTo(html);
+        assertThat(replayed.etag()).isEqualTo("\"v1\"");
+        assertThat(replayed.lastModified()).isEqualTo("Mon, 01 Sep 2025 00:00:00 GMT");
+        assertThat(replay.isRemote()).isFalse();
+        try (var files = Files.list(archiveDir)) {
+            assertThat(files).hasSize(1).allMatch(file -> file.toString().endsWith(".html.gz"));
+        }
+    }
+
+    @Test
+    void replay_MatchingValidators_ShouldAnswerNotModified() throws Exception {
+        // Given
+        String url = "https://www.bu.edu/academics/cas/courses/cas-cs-111/";
+        new PageArchive(archiveDir).save(url, new PageFetcher.Response(200, "<p>Intro</p>", "\"v1\"", null));
+        ReplayPageFetcher replay = new ReplayPageFetcher(new PageArchive(archiveDir));
+
+        // When
+        PageFetcher.Response unchanged = replay.fetch(url, "\"v1\"", null);
+        PageFetcher.Response changed = replay.fetch(url, "\"v0\"", null);
+
+        // Then
+        assertThat(unchanged.statusCode()).isEqualTo(304);
+        assertThat(changed.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void replay_PageNeverRecorded_ShouldFailWithNotFound() {
+        // Given
+        ReplayPageFetcher replay = new ReplayPageFetcher(new PageArchive(archiveDir));
+
+        // When & Then
+        assertThatThrownBy(() -> replay.fetch("https://www.bu.edu/academics/cas/courses/cas-xx-000/", null, null))
+                .isInstanceOf(HttpStatusException.class)
+                .satisfies(e -> assertThat(((HttpStatusException) e).getStatusCode()).isEqualTo(404));
+    }
+}
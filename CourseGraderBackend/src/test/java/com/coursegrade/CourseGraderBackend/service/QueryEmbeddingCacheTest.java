@@ -0,0 +1,106 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryEmbeddingCacheTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    @Mock
+    private EmbeddingStore<TextSegment> embeddingStore;
+
+    private QueryEmbeddingCache queryEmbeddingCache;
+
+    @BeforeEach
+    void setUp() {
+        queryEmbeddingCache = new QueryEmbeddingCache(embeddingModel, embeddingStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queryEmbeddingCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(queryEmbeddingCache, "ttlMillis", 60000L);
+        queryEmbeddingCache.init();
+    }
+
+    @Test
+    void search_RepeatedQuestion_ShouldEmbedAndSearchOnce() {
+        // Given
+        stubEmbedding();
+        when(embeddingStore.search(any(EmbeddingSearchRequest.class))).thenReturn(searchResult("CAS CS 111"));
+
+        // When
+        List<EmbeddingMatch<TextSegment>> first = queryEmbeddingCache.search("Easy QR2 courses", 5, 0.4);
+        List<EmbeddingMatch<TextSegment>> second = queryEmbeddingCache.search("  easy   qr2 COURSES ", 5, 0.4);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        verify(embeddingModel).embed("easy qr2 courses");
+        verify(embeddingStore).search(any(EmbeddingSearchRequest.class));
+    }
+
+    @Test
+    void search_AfterInvalidate_ShouldSearchAgainWithCachedEmbedding() {
+        // Given
+        stubEmbedding();
+        when(embeddingStore.search(any(EmbeddingSearchRequest.class)))
+                .thenReturn(searchResult("CAS CS 111"), searchResult("CAS CS 112"));
+        queryEmbeddingCache.search("best CS electives", 5, 0.4);
+
+        // When
+        queryEmbeddingCache.invalidate();
+        List<EmbeddingMatch<TextSegment>> result = queryEmbeddingCache.search("best CS electives", 5, 0.4);
+
+        // Then - the index changed, the question's embedding did not
+        assertThat(result).extracting(match -> match.embedded().text()).containsExactly("CAS CS 112");
+        verify(embeddingModel, times(1)).embed(anyString());
+        verify(embeddingStore, times(2)).search(any(EmbeddingSearchRequest.class));
+    }
+
+    @Test
+    void search_InvalidatedWhileSearching_ShouldNotServeTheOldResult() {
+        // Given - the index changes while the first search is running
+        stubEmbedding();
+        when(embeddingStore.search(any(EmbeddingSearchRequest.class)))
+                .thenAnswer(invocation -> {
+                    queryEmbeddingCache.invalidate();
+                    return searchResult("CAS CS 111");
+                })
+                .thenReturn(searchResult("CAS CS 112"));
+        queryEmbeddingCache.search("best CS electives", 5, 0.4);
+
+        // When
+        List<EmbeddingMatch<TextSegment>> result = queryEmbeddingCache.search("best CS electives", 5, 0.4);
+
+        // Then
+        assertThat(result).extracting(match -> match.embedded().text()).containsExactly("CAS CS 112");
+    }
+
+    // Helper methods
+    private void stubEmbedding() {
+        when(embeddingModel.embed(anyString())).thenReturn(Response.from(Embedding.from(new float[]{1f, 0f})));
+    }
+
+    private EmbeddingSearchResult<TextSegment> searchResult(String text) {
+        return new EmbeddingSearchResult<>(List.of(
+                new EmbeddingMatch<>(0.9, "id-" + text, Embedding.from(new float[]{1f, 0f}), TextSegment.from(text))));
+    }
+}
@@ -0,0 +1,84 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.event.CourseChangedEvent;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
+import com.coursegrade.CourseGraderBackend.model.Review;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RagIndexerTest {
+
+    @Mock
+    private RagIngestionService ragIngestionService;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private MeterRegistry meterRegistry;
+    private RagIndexer ragIndexer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ragIndexer = new RagIndexer(ragIngestionService, courseRepository, reviewRepository, meterRegistry);
+    }
+
+    @Test
+    void flush_RepeatedEvents_ShouldReindexEachReviewOnce() {
+        // Given - review 1 edited twice, review 2 deleted
+        Review review = new Review();
+        review.setId(1L);
+        ragIndexer.onReviewChanged(new ReviewChangedEvent(1L));
+        ragIndexer.onReviewChanged(new ReviewChangedEvent(1L));
+        ragIndexer.onReviewChanged(new ReviewChangedEvent(2L));
+        when(reviewRepository.findAllById(anyIterable())).thenReturn(List.of(review));
+
+        // When
+        assertThat(meterRegistry.get("rag.index.queue.depth").gauge().value()).isEqualTo(2.0);
+        ragIndexer.flush();
+
+        // Then - review 2 is not found, so its segment gets deleted
+        verify(ragIngestionService).reindexReviews(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))),
+                eq(List.of(review)));
+        verify(ragIngestionService, never()).reindexCourses(any(), any());
+        assertThat(ragIndexer.queueDepth()).isZero();
+        assertThat(meterRegistry.get("rag.index.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void flush_ReindexFails_ShouldRetryOnNextFlush() {
+        // Given
+        ragIndexer.onCourseChanged(new CourseChangedEvent(7L));
+        doThrow(new DataAccessResourceFailureException("Database unavailable"))
+                .doNothing()
+                .when(ragIngestionService).reindexCourses(eq(List.of(7L)), any());
+
+        // When
+        ragIndexer.flush();
+        int afterFailure = ragIndexer.queueDepth();
+        ragIndexer.flush();
+
+        // Then
+        assertThat(afterFailure).isEqualTo(1);
+        assertThat(ragIndexer.queueDepth()).isZero();
+        verify(ragIngestionService, times(2)).reindexCourses(eq(List.of(7L)), any());
+    }
+}
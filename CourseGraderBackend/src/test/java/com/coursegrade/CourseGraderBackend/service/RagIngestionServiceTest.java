@@ -0,0 +1,150 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.model.HubRequirement;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RagIngestionServiceTest {
+
+    private static final String UNCHANGED_ID = "00000000-0000-0000-0000-000000000001";
+    private static final String CHANGED_ID = "00000000-0000-0000-0000-000000000002";
+    private static final String REMOVED_ID = "00000000-0000-0000-0000-000000000003";
+    private static final String LEGACY_ID = "00000000-0000-0000-0000-000000000004";
+
+    @Mock
+    private EmbeddingPipeline embeddingPipeline;
+
+    @Mock
+    private QueryEmbeddingCache queryEmbeddingCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RagIngestionService ragIngestionService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestCourses_ShouldOnlyEmbedChangedCoursesAndDeleteReplacedRows() {
+        // Given - the first sync tells us the hash of course 1's segment
+        Course unchanged = createCourse(1L, "111", 4.0);
+        Course changed = createCourse(2L, "112", 3.0);
+        String unchangedHash = firstSyncHash(unchanged);
+        stubStoredSegments(List.of(
+                new String[]{UNCHANGED_ID, "COURSE:1", unchangedHash},
+                new String[]{CHANGED_ID, "COURSE:2", "stale-hash"},
+                new String[]{REMOVED_ID, "COURSE:3", "hash-of-a-deleted-course"},
+                new String[]{LEGACY_ID, null, null}));
+        ArgumentCaptor<List<TextSegment>> embedded = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+
+        // When
+        ragIngestionService.ingestCourses(List.of(unchanged, changed));
+
+        // Then - the replaced row goes once its successor is stored, the others when the sync finishes
+        verify(embeddingPipeline, times(2)).ingest(embedded.capture());
+        assertThat(embedded.getValue()).extracting(segment -> segment.metadata().getString("segment_key"))
+                .containsExactly("COURSE:2");
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(RagIngestionService.DELETE_SEGMENT_SQL), deleted.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(deleted.getAllValues().get(0)).containsExactly(CHANGED_ID);
+        assertThat(deleted.getAllValues().get(1)).containsExactlyInAnyOrder(REMOVED_ID, LEGACY_ID);
+        verify(queryEmbeddingCache, atLeastOnce()).invalidate();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_EmbeddingFails_ShouldKeepTheOldRow() {
+        // Given
+        stubStoredSegments(List.of(new String[]{CHANGED_ID, "COURSE:2", "stale-hash"}));
+        when(embeddingPipeline.ingest(anyList())).thenReturn(List.of());
+
+        // When
+        RagIngestionService.Sync sync = ragIngestionService.beginSync("COURSE");
+        int failed = sync.addCourses(List.of(createCourse(2L, "112", 3.0)));
+        sync.finish();
+
+        // Then
+        assertThat(failed).isEqualTo(1);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(queryEmbeddingCache, never()).invalidate();
+    }
+
+    @Test
+    void contentHash_HubOrder_ShouldNotChangeTheHash() {
+        // Given
+        Course first = createCourse(1L, "111", 4.0);
+        first.setHubRequirements(new LinkedHashSet<>(List.of(HubRequirement.values()[0], HubRequirement.values()[1])));
+        Course second = createCourse(1L, "111", 4.0);
+        second.setHubRequirements(new LinkedHashSet<>(List.of(HubRequirement.values()[1], HubRequirement.values()[0])));
+
+        // When & Then
+        assertThat(firstSyncHash(first)).isEqualTo(firstSyncHash(second));
+    }
+
+    // Helper methods
+    @SuppressWarnings("unchecked")
+    private String firstSyncHash(Course course) {
+        reset(embeddingPipeline);
+        when(embeddingPipeline.ingest(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        stubStoredSegments(List.of());
+        ArgumentCaptor<List<TextSegment>> embedded = ArgumentCaptor.forClass(List.class);
+        ragIngestionService.ingestCourses(List.of(course));
+        verify(embeddingPipeline).ingest(embedded.capture());
+        return embedded.getValue().get(0).metadata().getString("content_hash");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubStoredSegments(List<String[]> rows) {
+        when(jdbcTemplate.query(eq(RagIngestionService.STORED_SEGMENTS_SQL), any(RowMapper.class), eq("COURSE")))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    List<Object> mapped = new ArrayList<>();
+                    for (String[] row : rows) {
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getString(1)).thenReturn(row[0]);
+                        when(rs.getString(2)).thenReturn(row[1]);
+                        when(rs.getString(3)).thenReturn(row[2]);
+                        mapped.add(mapper.mapRow(rs, mapped.size()));
+                    }
+                    return mapped;
+                });
+    }
+
+    private Course createCourse(Long id, String code, double rating) {
+        Course course = new Course();
+        course.setId(id);
+        course.setTitle("Introduction to Computer Science");
+        course.setCollege("CAS");
+        course.setDepartment("CS");
+        course.setCourseCode(code);
+        course.setCourseDesc("Programming in Python.");
+        course.setHubRequirements(new HashSet<>());
+        course.setTotalReviews(3);
+        course.setAverageOverallRating(rating);
+        course.setAverageUsefulnessRating(rating);
+        course.setAverageDifficultyRating(rating);
+        course.setAverageWorkloadRating(rating);
+        course.setAverageInterestRating(rating);
+        course.setAverageTeacherRating(rating);
+        return course;
+    }
+}
@@ -0,0 +1,159 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.RagSyncJobDTO;
+import com.coursegrade.CourseGraderBackend.model.Course;
+import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RagSyncJobServiceTest {
+
+    @Mock
+    private RagIngestionService ragIngestionService;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private RagIngestionService.Sync sync;
+
+    private RagSyncJobService ragSyncJobService;
+
+    @BeforeEach
+    void setUp() {
+        ragSyncJobService = new RagSyncJobService(ragIngestionService, courseRepository, reviewRepository);
+        ReflectionTestUtils.setField(ragSyncJobService, "chunkSize", 2);
+        ragSyncJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ragSyncJobService.shutdown();
+    }
+
+    @Test
+    void start_CourseSync_ShouldReadInKeysetChunksAndFinish() throws Exception {
+        // Given - 3 courses, read 2 at a time
+        when(courseRepository.count()).thenReturn(3L);
+        when(ragIngestionService.beginSync("COURSE")).thenReturn(sync);
+        when(courseRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(courseRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(courseRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(sync.addCourses(anyList())).thenReturn(0, 1);
+
+        // When
+        RagSyncJobDTO started = ragSyncJobService.start("COURSE");
+        RagSyncJobDTO finished = awaitFinished(started.getJobId());
+
+        // Then
+        assertThat(finished.getState()).isEqualTo("COMPLETED");
+        assertThat(finished.getProcessed()).isEqualTo(3);
+        assertThat(finished.getFailed()).isEqualTo(1);
+        verify(courseRepository).findAllWithHubRequirementsByIdIn(List.of(1L, 2L));
+        verify(courseRepository).findAllWithHubRequirementsByIdIn(List.of(3L));
+        verify(sync).finish();
+        verify(courseRepository, never()).findAll();
+    }
+
+    @Test
+    void cancel_RunningJob_ShouldStopAfterCurrentChunkWithoutFinishing() throws Exception {
+        // Given - the first chunk waits until the job has been cancelled
+        CountDownLatch chunkStarted = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(courseRepository.count()).thenReturn(4L);
+        when(ragIngestionService.beginSync("COURSE")).thenReturn(sync);
+        when(courseRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(courseRepository.findAllWithHubRequirementsByIdIn(anyCollection())).thenReturn(List.of(new Course()));
+        when(sync.addCourses(anyList())).thenAnswer(invocation -> {
+            chunkStarted.countDown();
+            cancelled.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        RagSyncJobDTO started = ragSyncJobService.start("COURSE");
+        assertThat(chunkStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        boolean accepted = ragSyncJobService.cancel(started.getJobId());
+        cancelled.countDown();
+        RagSyncJobDTO finished = awaitFinished(started.getJobId());
+
+        // Then - rows of later chunks are not deleted as removed
+        assertThat(accepted).isTrue();
+        assertThat(finished.getState()).isEqualTo("CANCELLED");
+        verify(sync, never()).finish();
+        assertThat(ragSyncJobService.cancel(started.getJobId())).isFalse();
+    }
+
+    @Test
+    void start_SyncOfSameTypeRunning_ShouldReturnTheRunningJob() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(courseRepository.count()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        });
+        when(ragIngestionService.beginSync("COURSE")).thenReturn(sync);
+        when(courseRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        RagSyncJobDTO first = ragSyncJobService.start("COURSE");
+        RagSyncJobDTO second = ragSyncJobService.start("COURSE");
+        release.countDown();
+
+        // Then
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        assertThat(awaitFinished(first.getJobId()).getState()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void start_StoredSegmentsUnreadable_ShouldFailTheJobAndAllowANewOne() throws Exception {
+        // Given - the embeddings table is missing
+        when(courseRepository.count()).thenReturn(3L);
+        when(ragIngestionService.beginSync("COURSE"))
+                .thenThrow(new BadSqlGrammarException("beginSync", "SELECT embedding_id FROM embeddings",
+                        new SQLException("relation \"embeddings\" does not exist")));
+
+        // When
+        RagSyncJobDTO first = ragSyncJobService.start("COURSE");
+        RagSyncJobDTO failed = awaitFinished(first.getJobId());
+        RagSyncJobDTO second = ragSyncJobService.start("COURSE");
+
+        // Then
+        assertThat(failed.getState()).isEqualTo("FAILED");
+        assertThat(failed.getError()).contains("embeddings");
+        assertThat(second.getJobId()).isNotEqualTo(first.getJobId());
+        awaitFinished(second.getJobId());
+    }
+
+    // Helper methods
+    private RagSyncJobDTO awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            RagSyncJobDTO job = ragSyncJobService.status(jobId).orElseThrow();
+            if (!job.getState().equals("QUEUED") && !job.getState().equals("RUNNING")) return job;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Sync job " + jobId + " did not finish");
+    }
+}
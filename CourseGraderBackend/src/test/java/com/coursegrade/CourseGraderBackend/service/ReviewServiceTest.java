@@ -1,7 +1,9 @@
 package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.CreateReviewDTO;
+import com.coursegrade.CourseGraderBackend.dto.ReviewPageDTO;
 import com.coursegrade.CourseGraderBackend.dto.ReviewResponseDTO;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
 import com.coursegrade.CourseGraderBackend.model.Course;
 import com.coursegrade.CourseGraderBackend.model.Review;
 import com.coursegrade.CourseGraderBackend.model.Role;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,6 +34,12 @@ class ReviewServiceTest {
     @Mock
     private CourseService courseService;
 
+    @Mock
+    private CourseRatingAggregator courseRatingAggregator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -64,7 +73,7 @@ class ReviewServiceTest {
 
         // Then
         verify(reviewRepository).save(any(Review.class));
-        verify(courseService).updateCourseRatings(1L); // Should trigger course rating recalculation
+        verify(courseRatingAggregator).enqueueDelta(1L, 1, 5, 3, 4, 4, 5); // Should queue the review for the course totals
         assertThat(result).isEqualTo(expectedDTO);
     }
 
@@ -92,13 +101,14 @@ class ReviewServiceTest {
                 .hasMessage("Can only update own reviews");
 
         verify(reviewRepository, never()).save(any(Review.class));
-        verify(courseService, never()).updateCourseRatings(anyLong());
+        verify(courseRatingAggregator, never()).enqueueDelta(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
     }
 
     @Test
     void updateReview_Owner_ShouldUpdateAndRecalculateRatings() {
         // Given
         testReview.setUser(testUser); // Review belongs to current user
+        testReviewDTO.setTeacherRating(2); // was 5
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
         when(reviewRepository.save(any(Review.class))).thenReturn(testReview);
 
@@ -110,7 +120,7 @@ class ReviewServiceTest {
 
         // Then
         verify(reviewRepository).save(testReview);
-        verify(courseService).updateCourseRatings(testReview.getCourse().getId());
+        verify(courseRatingAggregator).enqueueDelta(testReview.getCourse().getId(), 0, 0, 0, 0, 0, -3); // only the change
         assertThat(result).isEqualTo(expectedDTO);
     }
 
@@ -126,7 +136,7 @@ class ReviewServiceTest {
                 .hasMessage("Can only delete own reviews");
 
         verify(reviewRepository, never()).delete(any(Review.class));
-        verify(courseService, never()).updateCourseRatings(anyLong());
+        verify(courseRatingAggregator, never()).enqueueDelta(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
     }
 
     @Test
@@ -140,34 +150,35 @@ class ReviewServiceTest {
 
         // Then
         verify(reviewRepository).delete(testReview);
-        verify(courseService).updateCourseRatings(testCourse.getId()); // Should recalculate after deletion
+        verify(courseRatingAggregator).enqueueDelta(testCourse.getId(), -1, -5, -3, -4, -4, -5); // Should subtract after deletion
+        verify(eventPublisher).publishEvent(new ReviewChangedEvent(1L)); // RagIndexer drops the segment
     }
 
-    // TEACHER FILTERING - Test complex filtering logic
+    // TEACHER FILTERING - paging and filtering happen in CourseService.getReviewPage
     @Test
-    void getReviewsByCourseAndTeacher_WithTeacherFilter_ShouldReturnMatchingReviews() {
+    void getReviewsByCourseAndTeacher_WithTeacherFilter_ShouldReturnPageFromCourseService() {
         // Given
-        Review review1 = createReviewWithTeacher("Dr. Smith");
-        Review review2 = createReviewWithTeacher("Dr. Johnson");
-        Review review3 = createReviewWithTeacher("Dr. Smith");
-
+        ReviewPageDTO expectedPage = ReviewPageDTO.builder().reviews(List.of(new ReviewResponseDTO())).build();
         when(courseService.getCourseById(1L)).thenReturn(Optional.of(testCourse));
-        when(reviewRepository.findByCourseOrderByCreatedAtDesc(testCourse))
-                .thenReturn(List.of(review1, review2, review3));
-
-        ReviewResponseDTO dto1 = new ReviewResponseDTO();
-        ReviewResponseDTO dto3 = new ReviewResponseDTO();
-        when(courseService.convertToResponseDTO(review1, testUser)).thenReturn(dto1);
-        when(courseService.convertToResponseDTO(review3, testUser)).thenReturn(dto3);
+        when(courseService.getReviewPage(testCourse, testUser, "Dr. Smith", "cursor", 10)).thenReturn(expectedPage);
 
         // When
-        List<ReviewResponseDTO> result = reviewService.getReviewsByCourseAndTeacher(1L, testUser, "Dr. Smith");
+        ReviewPageDTO result = reviewService.getReviewsByCourseAndTeacher(1L, testUser, "Dr. Smith", "cursor", 10);
 
-        // Then - Should only return reviews by Dr. Smith
-        assertThat(result).hasSize(2);
-        assertThat(result).containsExactly(dto1, dto3);
+        // Then
+        assertThat(result).isEqualTo(expectedPage);
     }
 
+    @Test
+    void getReviewsByCourseAndTeacher_UnknownCourse_ShouldThrowException() {
+        // Given
+        when(courseService.getCourseById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> reviewService.getReviewsByCourseAndTeacher(99L, testUser, null, null, 10))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Course not found");
+    }
 
     // Helper methods
     private User createTestUser(Long id, String email) {
@@ -203,12 +214,6 @@ class ReviewServiceTest {
         return review;
     }
 
-    private Review createReviewWithTeacher(String teacherName) {
-        Review review = createTestReview();
-        review.setTeacherName(teacherName);
-        return review;
-    }
-
     private Review createReviewWithTeacherRating(String teacherName, int rating) {
         Review review = createTestReview();
         review.setTeacherName(teacherName);
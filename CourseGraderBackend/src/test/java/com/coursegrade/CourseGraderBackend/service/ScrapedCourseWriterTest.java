@@ -0,0 +1,80 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScrapedCourseWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private CourseSearchIndex courseSearchIndex;
+
+    @InjectMocks
+    private ScrapedCourseWriter scrapedCourseWriter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scrapedCourseWriter, "batchSize", 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void add_FullBatch_ShouldUpsertOnceWithoutDuplicateKeys() {
+        // Given - the same course parsed twice before the batch fills up
+        ArgumentCaptor<Collection<Object>> batch = ArgumentCaptor.forClass(Collection.class);
+
+        // When
+        scrapedCourseWriter.add("CAS", "CS", "111", "Intro to CS", "https://www.bu.edu/academics/cas/courses/cas-cs-111/");
+        scrapedCourseWriter.add("CAS", "CS", "111", "Introduction to Computer Science 1", "https://www.bu.edu/academics/cas/courses/cas-cs-111/");
+        scrapedCourseWriter.add("CAS", "CS", "112", "Introduction to Computer Science 2", "https://www.bu.edu/academics/cas/courses/cas-cs-112/");
+        scrapedCourseWriter.add("CAS", "MA", "123", "Calculus I", "https://www.bu.edu/academics/cas/courses/cas-ma-123/");
+
+        // Then - nothing is left over for flush, the latest parse wins
+        verify(jdbcTemplate).batchUpdate(eq(ScrapedCourseWriter.UPSERT_SQL), batch.capture(), eq(3),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getValue()).hasSize(3);
+        assertThat(batch.getValue().iterator().next().toString()).contains("Introduction to Computer Science 1");
+        scrapedCourseWriter.flush();
+        verifyNoMoreInteractions(jdbcTemplate);
+        verify(courseSearchIndex).invalidate();
+        verifyNoInteractions(courseService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_BatchUpsertFails_ShouldSaveCoursesOneByOne() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("no unique or exclusion constraint matching the ON CONFLICT specification"));
+        scrapedCourseWriter.add("CAS", "CS", "111", "Introduction to Computer Science 1", "https://www.bu.edu/academics/cas/courses/cas-cs-111/");
+
+        // When
+        scrapedCourseWriter.flush();
+
+        // Then
+        verify(courseService).saveScrapedCourse("CAS", "CS", "111", "Introduction to Computer Science 1",
+                "https://www.bu.edu/academics/cas/courses/cas-cs-111/");
+        verify(courseSearchIndex).invalidate();
+    }
+}
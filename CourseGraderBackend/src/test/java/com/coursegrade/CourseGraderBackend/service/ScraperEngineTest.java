@@ -0,0 +1,122 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScraperEngineTest {
+
+    private final Deque<Object> responses = new ArrayDeque<>(); // Response or IOException, per fetch
+    private final AtomicInteger fetches = new AtomicInteger();
+    private ScraperEngine scraperEngine;
+
+    @BeforeEach
+    void setUp() {
+        PageFetcher fetcher = (url, etag, lastModified) -> {
+            fetches.incrementAndGet();
+            Object next = responses.poll();
+            if (next instanceof IOException e) throw e;
+            return (PageFetcher.Response) next;
+        };
+        scraperEngine = new ScraperEngine(new SimpleMeterRegistry(), fetcher);
+        ReflectionTestUtils.setField(scraperEngine, "workers", 4);
+        ReflectionTestUtils.setField(scraperEngine, "requestsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(scraperEngine, "burst", 10);
+        ReflectionTestUtils.setField(scraperEngine, "maxAttempts", 3);
+        ReflectionTestUtils.setField(scraperEngine, "backoffMillis", 1L);
+        scraperEngine.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scraperEngine.shutdown();
+    }
+
+    @Test
+    void tokenBucket_BurstUsedUp_ShouldSpaceCallersAtTheConfiguredRate() {
+        // Given - 2 requests per second, burst of 2
+        ScraperEngine.TokenBucket bucket = new ScraperEngine.TokenBucket(2, 2);
+        long now = System.nanoTime();
+
+        // When
+        long first = bucket.reserve(now);
+        long second = bucket.reserve(now);
+        long third = bucket.reserve(now);
+        long fourth = bucket.reserve(now);
+        long afterRefill = bucket.reserve(now + TimeUnit.SECONDS.toNanos(5));
+
+        // Then - burst is free, then one token every 500 ms in arrival order
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isCloseTo(TimeUnit.MILLISECONDS.toNanos(500), within(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertThat(fourth).isCloseTo(TimeUnit.MILLISECONDS.toNanos(1000), within(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertThat(afterRefill).isZero();
+    }
+
+    @Test
+    void fetch_ServerErrorThenSuccess_ShouldRetry() throws Exception {
+        // Given
+        responses.add(new HttpStatusException("Service Unavailable", 503, "https://www.bu.edu/academics/cas/courses/"));
+        responses.add(new PageFetcher.Response(200, "<title>CAS Courses</title>", "\"v1\"", null));
+
+        // When
+        Document doc = scraperEngine.fetch("https://www.bu.edu/academics/cas/courses/");
+
+        // Then
+        assertThat(doc.title()).isEqualTo("CAS Courses");
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void fetch_NotFound_ShouldFailWithoutRetrying() {
+        // Given
+        responses.add(new HttpStatusException("Not Found", 404, "https://www.bu.edu/academics/cas/courses/cas-xx-000/"));
+
+        // When & Then
+        assertThatThrownBy(() -> scraperEngine.fetch("https://www.bu.edu/academics/cas/courses/cas-xx-000/"))
+                .isInstanceOf(HttpStatusException.class);
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchIfChanged_NotModified_ShouldKeepValidators() throws Exception {
+        // Given
+        responses.add(new PageFetcher.Response(304, "", null, null));
+
+        // When
+        ScraperEngine.FetchedPage page = scraperEngine.fetchIfChanged(
+                "https://www.bu.edu/academics/cas/courses/cas-cs-111/", "\"v1\"", "Mon, 01 Sep 2025 00:00:00 GMT");
+
+        // Then
+        assertThat(page.notModified()).isTrue();
+        assertThat(page.etag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void forEach_TaskThrows_ShouldRunEveryOtherTask() {
+        // Given
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) items.add(i);
+        Set<Integer> processed = Collections.synchronizedSet(new HashSet<>());
+
+        // When
+        scraperEngine.forEach(items, item -> {
+            if (item == 13) throw new ArrayIndexOutOfBoundsException("Malformed course title");
+            processed.add(item);
+        });
+
+        // Then
+        assertThat(processed).hasSize(99).doesNotContain(13);
+    }
+}
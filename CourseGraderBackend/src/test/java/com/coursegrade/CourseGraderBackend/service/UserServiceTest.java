@@ -1,5 +1,6 @@
 package com.coursegrade.CourseGraderBackend.service;
 
+import com.coursegrade.CourseGraderBackend.dto.ChangePasswordDTO;
 import com.coursegrade.CourseGraderBackend.dto.HubProgressDTO;
 import com.coursegrade.CourseGraderBackend.dto.HubProgressItem;
 import com.coursegrade.CourseGraderBackend.dto.UserDashboardDTO;
@@ -8,6 +9,7 @@ import com.coursegrade.CourseGraderBackend.repository.CourseRepository;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
 import com.coursegrade.CourseGraderBackend.repository.UserRepository;
 import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
+import com.coursegrade.CourseGraderBackend.security.UserPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +44,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CourseRatingAggregator courseRatingAggregator;
+
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -140,6 +148,37 @@ class UserServiceTest {
         assertThat(result.getCoursesToReview()).contains("CAS CS CS103");
     }
 
+    @Test
+    void changePassword_PrincipalFromTokenClaims_ShouldReloadUserAndInvalidatePrincipal() {
+        // Given - a stateless principal only has id, email, role and enabled
+        User principal = new User();
+        principal.setId(1L);
+        principal.setEmail("test@example.com");
+        User storedUser = new User();
+        storedUser.setId(1L);
+        storedUser.setEmail("test@example.com");
+        storedUser.setPassword("encodedOldPassword");
+        storedUser.setMajor("Computer Science");
+        ChangePasswordDTO request = ChangePasswordDTO.builder()
+                .currentPassword("oldPassword")
+                .newPassword("newPassword123")
+                .confirmNewPassword("newPassword123")
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(storedUser));
+        when(passwordEncoder.matches("oldPassword", "encodedOldPassword")).thenReturn(true);
+        when(passwordEncoder.encode("newPassword123")).thenReturn("encodedNewPassword");
+
+        // When
+        userService.changePassword(principal, request);
+
+        // Then
+        verify(userRepository).save(storedUser);
+        assertThat(storedUser.getPassword()).isEqualTo("encodedNewPassword");
+        assertThat(storedUser.getMajor()).isEqualTo("Computer Science");
+        verify(userPrincipalCache).invalidate(1L);
+    }
+
+    // Helper methods
     private Course createTestCourse(String courseCode, Set<HubRequirement> hubReqs) {
         Course course = new Course();
         course.setId(Long.valueOf(courseCode.substring(2))); // CS101 -> 101
@@ -1,6 +1,7 @@
 package com.coursegrade.CourseGraderBackend.service;
 
 import com.coursegrade.CourseGraderBackend.dto.VoteResponseDTO;
+import com.coursegrade.CourseGraderBackend.event.ReviewChangedEvent;
 import com.coursegrade.CourseGraderBackend.model.*;
 import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
 import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
@@ -10,11 +11,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +32,12 @@ class VoteServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VoteService voteService;
 
@@ -43,10 +55,9 @@ class VoteServiceTest {
         // Given - User has already upvoted
         Vote existingUpvote = createTestVote(VoteType.UPVOTE);
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
-        when(voteRepository.findByUserAndReview(testUser, testReview))
-                .thenReturn(Optional.of(existingUpvote))
-                .thenReturn(Optional.empty());
-        when(voteRepository.findByReview(testReview)).thenReturn(List.of()); // No votes after deletion
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.of(existingUpvote));
+        when(voteRepository.deleteIfType(1L, VoteType.UPVOTE)).thenReturn(1);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(0));
 
         // When - User clicks upvote again (toggle off)
         VoteResponseDTO result = voteService.voteOnReview(testUser, 1L, "UPVOTE");
@@ -54,6 +65,23 @@ class VoteServiceTest {
         // Then - Should show no user vote (toggled off)
         assertThat(result.getUserVote()).isNull();
         assertThat(result.getVoteCount()).isEqualTo(0);
+        verify(reviewRepository).adjustVoteCounts(1L, -1, 0);
+        verify(voteRepository, never()).findByReview(any());
+    }
+
+    @Test
+    void voteOnReview_ReviewDeletedWhileVoting_ShouldThrowReviewNotFound() {
+        // Given - the review is gone by the time its totals are read back
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.of(createTestVote(VoteType.UPVOTE)));
+        when(voteRepository.deleteIfType(1L, VoteType.UPVOTE)).thenReturn(1);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> voteService.voteOnReview(testUser, 1L, "UPVOTE"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Review not found");
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -61,32 +89,25 @@ class VoteServiceTest {
         // Given - User has upvoted, now wants to downvote
         Vote existingUpvote = createTestVote(VoteType.UPVOTE);
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
-        when(voteRepository.findByUserAndReview(testUser, testReview))
-                .thenReturn(Optional.of(existingUpvote))
-                .thenReturn(Optional.of(existingUpvote));
-        when(voteRepository.findByReview(testReview)).thenReturn(List.of(existingUpvote));
-
-        // Mock the vote type change
-        doAnswer(invocation -> {
-            existingUpvote.setVoteType(VoteType.DOWNVOTE);
-            return null;
-        }).when(voteRepository).save(existingUpvote);
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.of(existingUpvote));
+        when(voteRepository.changeTypeIfCurrent(1L, VoteType.UPVOTE, VoteType.DOWNVOTE)).thenReturn(1);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(-1));
 
         // When - User clicks downvote on upvoted review
         VoteResponseDTO result = voteService.voteOnReview(testUser, 1L, "DOWNVOTE");
 
         // Then - Should show downvote (changed from upvote)
         assertThat(result.getUserVote()).isEqualTo("DOWNVOTE");
+        assertThat(result.getVoteCount()).isEqualTo(-1);
+        verify(reviewRepository).adjustVoteCounts(1L, -1, 1);
     }
 
     @Test
     void voteOnReview_NoExistingVote_ShouldCreateVote() {
         // Given - User hasn't voted yet
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
-        when(voteRepository.findByUserAndReview(testUser, testReview))
-                .thenReturn(Optional.empty())
-                .thenReturn(Optional.of(createTestVote(VoteType.UPVOTE)));
-        when(voteRepository.findByReview(testReview)).thenReturn(List.of(createTestVote(VoteType.UPVOTE)));
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.empty());
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(1));
 
         // When - User votes for first time
         VoteResponseDTO result = voteService.voteOnReview(testUser, 1L, "UPVOTE");
@@ -94,6 +115,115 @@ class VoteServiceTest {
         // Then - Should show the new vote
         assertThat(result.getUserVote()).isEqualTo("UPVOTE");
         assertThat(result.getVoteCount()).isEqualTo(1);
+        verify(voteRepository).saveAndFlush(argThat(vote -> vote.getVoteType() == VoteType.UPVOTE));
+        verify(reviewRepository).adjustVoteCounts(1L, 1, 0);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void voteOnReview_VoteDropsReviewBelowIndexThreshold_ShouldPublishReviewChanged() {
+        // Given - net score -5 before the vote, -6 after
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.empty());
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(-6));
+
+        // When
+        voteService.voteOnReview(testUser, 1L, "DOWNVOTE");
+
+        // Then
+        verify(reviewRepository).adjustVoteCounts(1L, 0, 1);
+        verify(eventPublisher).publishEvent(new ReviewChangedEvent(1L));
+    }
+
+    @Test
+    void voteOnReview_VoteChangedConcurrently_ShouldRereadAndCountOnce() {
+        // Given - a parallel request removed the upvote between our read and our delete
+        Vote existingUpvote = createTestVote(VoteType.UPVOTE);
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+        when(voteRepository.findByUserAndReview(testUser, testReview))
+                .thenReturn(Optional.of(existingUpvote))
+                .thenReturn(Optional.empty());
+        when(voteRepository.deleteIfType(1L, VoteType.UPVOTE)).thenReturn(0);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(1));
+
+        // When
+        VoteResponseDTO result = voteService.voteOnReview(testUser, 1L, "UPVOTE");
+
+        // Then - the retry sees no vote and records a new upvote, counters move once
+        assertThat(result.getUserVote()).isEqualTo("UPVOTE");
+        verify(reviewRepository, times(1)).adjustVoteCounts(anyLong(), anyInt(), anyInt());
+        verify(reviewRepository).adjustVoteCounts(1L, 1, 0);
+    }
+
+    @Test
+    void voteOnReview_DuplicateInsertFromParallelRequest_ShouldThrowException() {
+        // Given
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+        when(voteRepository.findByUserAndReview(testUser, testReview)).thenReturn(Optional.empty());
+        when(voteRepository.saveAndFlush(any(Vote.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When & Then
+        assertThatThrownBy(() -> voteService.voteOnReview(testUser, 1L, "DOWNVOTE"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Vote changed while saving, please try again");
+        verify(reviewRepository, never()).adjustVoteCounts(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void voteOnReview_WriteBehindEnabled_ShouldOnlyRecordInBuffer() {
+        // Given
+        ReflectionTestUtils.setField(voteService, "writeBehind", true);
+        VoteResponseDTO buffered = VoteResponseDTO.builder().reviewId("1").voteCount(1).userVote("UPVOTE").build();
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+        when(voteWriteBuffer.record(testUser, testReview, VoteType.UPVOTE)).thenReturn(buffered);
+
+        // When
+        VoteResponseDTO result = voteService.voteOnReview(testUser, 1L, "UPVOTE");
+
+        // Then
+        assertThat(result).isSameAs(buffered);
+        verifyNoInteractions(voteRepository);
+        verify(reviewRepository, never()).adjustVoteCounts(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getReviewVotes_ShouldReturnVotesInRequestedOrderWithOneVoteQuery() {
+        // Given
+        testReview.setUpvoteCount(3);
+        testReview.setDownvoteCount(1);
+        Review otherReview = new Review();
+        otherReview.setId(2L);
+        otherReview.setUpvoteCount(0);
+        otherReview.setDownvoteCount(2);
+        List<Long> ids = List.of(2L, 99L, 1L);
+        when(reviewRepository.findAllById(ids)).thenReturn(List.of(testReview, otherReview));
+        when(voteRepository.findByUserAndReviewIdIn(eq(testUser), anyCollection()))
+                .thenReturn(List.of(createTestVote(VoteType.UPVOTE)));
+
+        // When
+        List<VoteResponseDTO> result = voteService.getReviewVotes(testUser, ids);
+
+        // Then - unknown id 99 is skipped
+        assertThat(result).extracting(VoteResponseDTO::getReviewId).containsExactly("2", "1");
+        assertThat(result).extracting(VoteResponseDTO::getVoteCount).containsExactly(-2, 2);
+        assertThat(result).extracting(VoteResponseDTO::getUserVote).containsExactly(null, "UPVOTE");
+        verify(voteRepository, never()).findByUserAndReview(any(), any());
+    }
+
+    @Test
+    void getReviewVotes_TooManyIds_ShouldThrowException() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            ids.add(id);
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> voteService.getReviewVotes(testUser, ids))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Can request votes for at most 100 reviews");
+        verifyNoInteractions(reviewRepository, voteRepository);
     }
 
     // Helper methods
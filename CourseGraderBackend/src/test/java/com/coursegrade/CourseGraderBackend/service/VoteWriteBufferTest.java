@@ -0,0 +1,268 @@
+package com.coursegrade.CourseGraderBackend.service;
+
+import com.coursegrade.CourseGraderBackend.dto.VoteResponseDTO;
+import com.coursegrade.CourseGraderBackend.model.Review;
+import com.coursegrade.CourseGraderBackend.model.User;
+import com.coursegrade.CourseGraderBackend.model.Vote;
+import com.coursegrade.CourseGraderBackend.model.VoteType;
+import com.coursegrade.CourseGraderBackend.repository.ReviewRepository;
+import com.coursegrade.CourseGraderBackend.repository.UserRepository;
+import com.coursegrade.CourseGraderBackend.repository.VoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteWriteBufferTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+    private VoteWriteBuffer voteWriteBuffer;
+    private Review testReview;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        voteWriteBuffer = new VoteWriteBuffer(voteRepository, reviewRepository, userRepository,
+                transactionManager, eventPublisher, meterRegistry);
+        testReview = createTestReview();
+    }
+
+    @Test
+    void flush_ConcurrentVotersWhileFlushing_ShouldWriteEveryVoteExactlyOnce() throws Exception {
+        // Given - 8 threads record 2000 first-time upvotes while another thread keeps flushing
+        int threads = 8;
+        int votesPerThread = 250;
+        List<Vote> saved = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger upvotes = new AtomicInteger();
+        when(voteRepository.findByUserAndReview(any(User.class), eq(testReview))).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findByReviewIdAndUserIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> createTestUser(invocation.getArgument(0)));
+        when(reviewRepository.getReferenceById(1L)).thenReturn(testReview);
+        when(voteRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Vote> votes = invocation.getArgument(0);
+            votes.forEach(saved::add);
+            return votes;
+        });
+        when(reviewRepository.adjustVoteCounts(eq(1L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            upvotes.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+        when(reviewRepository.findNetVotes(1L)).thenAnswer(invocation -> Optional.of(upvotes.get()));
+
+        ExecutorService voters = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long firstUser = (long) t * votesPerThread;
+            done.add(voters.submit(() -> {
+                start.await();
+                for (long userId = firstUser; userId < firstUser + votesPerThread; userId++) {
+                    voteWriteBuffer.record(createTestUser(userId), testReview, VoteType.UPVOTE);
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        while (done.stream().anyMatch(future -> !future.isDone())) {
+            voteWriteBuffer.flush();
+        }
+        for (Future<?> future : done) {
+            future.get(); // rethrows anything a voter thread hit
+        }
+        voters.shutdown();
+        voteWriteBuffer.drain();
+
+        // Then
+        assertThat(saved).hasSize(threads * votesPerThread);
+        assertThat(saved.stream().map(vote -> vote.getUser().getId()).distinct()).hasSize(threads * votesPerThread);
+        assertThat(upvotes.get()).isEqualTo(threads * votesPerThread);
+        assertThat(voteWriteBuffer.pendingVotes()).isZero();
+        verifyNoInteractions(eventPublisher); // never near the index threshold
+    }
+
+    @Test
+    void record_ToggledBackBeforeFlush_ShouldWriteNothing() {
+        // Given
+        User user = createTestUser(7L);
+        when(voteRepository.findByUserAndReview(user, testReview)).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findByReviewIdAndUserIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+
+        // When - upvote and take it back within one flush interval
+        VoteResponseDTO first = voteWriteBuffer.record(user, testReview, VoteType.UPVOTE);
+        VoteResponseDTO second = voteWriteBuffer.record(user, testReview, VoteType.UPVOTE);
+        voteWriteBuffer.flush();
+
+        // Then
+        assertThat(first.getVoteCount()).isEqualTo(1);
+        assertThat(second.getUserVote()).isNull();
+        assertThat(second.getVoteCount()).isEqualTo(0);
+        verify(voteRepository, times(1)).findByUserAndReview(any(), any()); // second click read the buffer
+        verify(reviewRepository, never()).adjustVoteCounts(anyLong(), anyInt(), anyInt());
+        assertThat(voteWriteBuffer.pendingVotes()).isZero();
+    }
+
+    @Test
+    void record_ExistingStoredVote_ShouldCountChangeAgainstStoredTotals() {
+        // Given - the review has 3 upvotes stored, one of them by this user
+        testReview.setUpvoteCount(3);
+        User user = createTestUser(7L);
+        Vote storedVote = createTestVote(user, VoteType.UPVOTE);
+        when(voteRepository.findByUserAndReview(user, testReview)).thenReturn(Optional.of(storedVote));
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findByReviewIdAndUserIdIn(eq(1L), anyCollection())).thenReturn(List.of(storedVote));
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(1));
+
+        // When - user switches to a downvote
+        VoteResponseDTO result = voteWriteBuffer.record(user, testReview, VoteType.DOWNVOTE);
+        voteWriteBuffer.flush();
+
+        // Then
+        assertThat(result.getUserVote()).isEqualTo("DOWNVOTE");
+        assertThat(result.getVoteCount()).isEqualTo(1); // 3 - 1 up, + 1 down
+        assertThat(storedVote.getVoteType()).isEqualTo(VoteType.DOWNVOTE);
+        verify(reviewRepository).adjustVoteCounts(1L, -1, 1);
+    }
+
+    @Test
+    void flush_TransactionFails_ShouldKeepVotesForNextFlush() {
+        // Given
+        User user = createTestUser(7L);
+        when(voteRepository.findByUserAndReview(user, testReview)).thenReturn(Optional.empty());
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Database unavailable"))
+                .thenReturn(null);
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findByReviewIdAndUserIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+        when(reviewRepository.getReferenceById(1L)).thenReturn(testReview);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(-1));
+        voteWriteBuffer.record(user, testReview, VoteType.DOWNVOTE);
+
+        // When
+        voteWriteBuffer.flush();
+        int afterFailure = voteWriteBuffer.pendingVotes();
+        voteWriteBuffer.flush();
+
+        // Then
+        assertThat(afterFailure).isEqualTo(1);
+        assertThat(voteWriteBuffer.pendingVotes()).isZero();
+        verify(reviewRepository, times(1)).adjustVoteCounts(1L, 0, 1);
+    }
+
+    @Test
+    void flush_OneVoteRejected_ShouldStillWriteTheOtherVotesAndReviews() {
+        // Given - user 9 was deleted after voting on review 2, so inserting their vote fails the FK
+        Review otherReview = createTestReview();
+        otherReview.setId(2L);
+        User deletedUser = createTestUser(9L);
+        when(voteRepository.findByUserAndReview(any(User.class), any(Review.class))).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(anyLong())).thenReturn(true);
+        when(voteRepository.findByReviewIdAndUserIdIn(anyLong(), anyCollection())).thenReturn(List.of());
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> createTestUser(invocation.getArgument(0)));
+        when(reviewRepository.getReferenceById(1L)).thenReturn(testReview);
+        when(reviewRepository.getReferenceById(2L)).thenReturn(otherReview);
+        when(voteRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Vote> votes = invocation.getArgument(0);
+            for (Vote vote : votes) {
+                if (vote.getUser().getId().equals(9L)) throw new DataIntegrityViolationException("fk_votes_user");
+            }
+            return votes;
+        });
+        when(reviewRepository.findNetVotes(anyLong())).thenReturn(Optional.of(1));
+        voteWriteBuffer.record(createTestUser(7L), testReview, VoteType.UPVOTE);
+        voteWriteBuffer.record(createTestUser(8L), otherReview, VoteType.UPVOTE);
+        voteWriteBuffer.record(deletedUser, otherReview, VoteType.UPVOTE);
+
+        // When
+        voteWriteBuffer.flush();
+
+        // Then - only the rejected vote is lost, and nothing is left to block later flushes
+        verify(reviewRepository).adjustVoteCounts(1L, 1, 0);
+        verify(reviewRepository).adjustVoteCounts(2L, 1, 0);
+        assertThat(voteWriteBuffer.pendingVotes()).isZero();
+        assertThat(meterRegistry.get("votes.write-behind.dropped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flush_OneReviewFails_ShouldWriteTheOtherReviews() {
+        // Given - review 2 cannot be written right now
+        Review otherReview = createTestReview();
+        otherReview.setId(2L);
+        when(voteRepository.findByUserAndReview(any(User.class), any(Review.class))).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(reviewRepository.existsById(2L)).thenThrow(new IllegalStateException("Lock wait timeout"));
+        when(voteRepository.findByReviewIdAndUserIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+        when(userRepository.getReferenceById(7L)).thenReturn(createTestUser(7L));
+        when(reviewRepository.getReferenceById(1L)).thenReturn(testReview);
+        when(reviewRepository.findNetVotes(1L)).thenReturn(Optional.of(1));
+        voteWriteBuffer.record(createTestUser(7L), testReview, VoteType.UPVOTE);
+        voteWriteBuffer.record(createTestUser(8L), otherReview, VoteType.UPVOTE);
+
+        // When
+        voteWriteBuffer.flush();
+
+        // Then - review 2's vote waits for the next flush
+        verify(reviewRepository).adjustVoteCounts(1L, 1, 0);
+        assertThat(voteWriteBuffer.pendingVotes()).isEqualTo(1);
+    }
+
+    // Helper methods
+    private User createTestUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+
+    private Review createTestReview() {
+        Review review = new Review();
+        review.setId(1L);
+        review.setUpvoteCount(0);
+        review.setDownvoteCount(0);
+        return review;
+    }
+
+    private Vote createTestVote(User user, VoteType voteType) {
+        Vote vote = new Vote();
+        vote.setId(1L);
+        vote.setUser(user);
+        vote.setReview(testReview);
+        vote.setVoteType(voteType);
+        return vote;
+    }
+}
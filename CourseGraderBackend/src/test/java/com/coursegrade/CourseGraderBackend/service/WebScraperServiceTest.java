@@ -1,17 +1,21 @@
 package com.coursegrade.CourseGraderBackend.service;
 
+import com.coursegrade.CourseGraderBackend.dto.CourseFetchState;
 import com.coursegrade.CourseGraderBackend.model.College;
 import com.coursegrade.CourseGraderBackend.repository.CollegeRepository;
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashSet;
-import java.util.Optional;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +30,18 @@ class WebScraperServiceTest {
     @Mock
     private CollegeRepository collegeRepository;
 
+    @Mock
+    private CourseSuggestionIndex courseSuggestionIndex;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private ScraperEngine scraperEngine;
+
+    @Mock
+    private ScrapedCourseWriter scrapedCourseWriter;
+
     @InjectMocks
     private WebScraperService webScraperService;
 
@@ -38,8 +54,8 @@ class WebScraperServiceTest {
         // When
         webScraperService.courseDetailsSave(courseTitle, courseUrl);
 
-        // Then - Should extract and pass correct parts to courseService
-        verify(courseService).saveScrapedCourse(
+        // Then - Should extract and pass correct parts to the course writer
+        verify(scrapedCourseWriter).add(
                 "CAS",                                    // college
                 "CS",                                     // department
                 "112",                                    // course number
@@ -58,7 +74,7 @@ class WebScraperServiceTest {
         webScraperService.courseDetailsSave(courseTitle, courseUrl);
 
         // Then - Should handle multiple colons correctly (only split on first)
-        verify(courseService).saveScrapedCourse(
+        verify(scrapedCourseWriter).add(
                 "ENG",
                 "ME",
                 "305",
@@ -67,6 +83,95 @@ class WebScraperServiceTest {
         );
     }
 
+    @Test
+    void courseNames_CourseListedInTwoCatalogs_ShouldSaveItOnce() throws Exception {
+        // Given - the GMS course shows up on both listing pages
+        runTasksInline();
+        String casUrl = "https://www.bu.edu/academics/cas/courses/";
+        String gmsUrl = "https://www.bu.edu/academics/gms/courses/";
+        when(scraperEngine.fetch(casUrl)).thenReturn(Jsoup.parse("<div></div>"));
+        when(scraperEngine.fetch(gmsUrl)).thenReturn(Jsoup.parse("<div></div>"));
+        when(scraperEngine.fetch(casUrl + 1)).thenReturn(Jsoup.parse(
+                "<a href=\"/academics/cas/courses/cas-cs-111/\">CAS CS 111: Introduction to Computer Science 1</a>"
+                        + "<a href=\"/academics/gms/courses/gms-ms-640/\">GMS MS 640: Biostatistics</a>"
+                        + "<a href=\"/academics/cas/\">CAS Home</a>"));
+        when(scraperEngine.fetch(gmsUrl + 1)).thenReturn(Jsoup.parse(
+                "<a href=\"/academics/gms/courses/gms-ms-640/\">GMS MS 640: Biostatistics</a>"));
+        Map<String, String> catalogs = new LinkedHashMap<>();
+        catalogs.put(casUrl, "CAS");
+        catalogs.put(gmsUrl, "GMS");
+        List<String> courseUrls = new ArrayList<>();
+
+        // When
+        webScraperService.courseNames(courseUrls, catalogs);
+
+        // Then
+        assertThat(courseUrls).containsExactlyInAnyOrder(
+                "https://www.bu.edu/academics/cas/courses/cas-cs-111/",
+                "https://www.bu.edu/academics/gms/courses/gms-ms-640/");
+        verify(scrapedCourseWriter).add(eq("CAS"), eq("CS"), eq("111"), anyString(), anyString());
+        verify(scrapedCourseWriter, times(1)).add(eq("GMS"), eq("MS"), eq("640"), anyString(), anyString());
+        verify(scrapedCourseWriter).flush();
+        verify(courseSuggestionIndex).rebuild();
+        verify(catalogCache).evictDepartments();
+    }
+
+    @Test
+    void courseHubsAndDescription_PageFailsToLoad_ShouldContinueWithRemainingCourses() throws Exception {
+        // Given
+        runTasksInline();
+        String brokenUrl = "https://www.bu.edu/academics/cas/courses/cas-cs-112/";
+        String courseUrl = "https://www.bu.edu/academics/cas/courses/cas-cs-111/";
+        when(scraperEngine.fetchIfChanged(brokenUrl, null, null)).thenThrow(new IOException("Read timed out"));
+        when(scraperEngine.fetchIfChanged(courseUrl, null, null)).thenReturn(createCoursePage("\"v1\""));
+
+        // When
+        webScraperService.courseHubsAndDescription(List.of(brokenUrl, courseUrl));
+
+        // Then
+        ArgumentCaptor<CourseFetchState> fetchState = ArgumentCaptor.forClass(CourseFetchState.class);
+        verify(courseService).updateCourseWithHubReqsAndDescription(eq(courseUrl),
+                eq(List.of("Quantitative Reasoning II")), eq("No prior experience needed."), fetchState.capture());
+        assertThat(fetchState.getValue().getEtag()).isEqualTo("\"v1\"");
+        assertThat(fetchState.getValue().getContentHash()).isEqualTo(WebScraperService.contentHash(
+                List.of("Quantitative Reasoning II"), "No prior experience needed."));
+        verify(courseService, never()).updateCourseWithHubReqsAndDescription(eq(brokenUrl), any(), any(), any());
+    }
+
+    @Test
+    void courseHubsAndDescription_UnchangedCourses_ShouldSkipCourseWrites() throws Exception {
+        // Given - one page answers 304, the other is re-served with a new ETag but the same content
+        runTasksInline();
+        String notModifiedUrl = "https://www.bu.edu/academics/cas/courses/cas-cs-112/";
+        String reservedUrl = "https://www.bu.edu/academics/cas/courses/cas-cs-111/";
+        String contentHash = WebScraperService.contentHash(List.of("Quantitative Reasoning II"), "No prior experience needed.");
+        when(courseService.getFetchStates()).thenReturn(Map.of(
+                notModifiedUrl, createFetchState(notModifiedUrl, "\"a\"", "other"),
+                reservedUrl, createFetchState(reservedUrl, "\"v1\"", contentHash)));
+        when(scraperEngine.fetchIfChanged(notModifiedUrl, "\"a\"", null))
+                .thenReturn(new ScraperEngine.FetchedPage(null, "\"a\"", null));
+        when(scraperEngine.fetchIfChanged(reservedUrl, "\"v1\"", null)).thenReturn(createCoursePage("\"v2\""));
+
+        // When
+        webScraperService.courseHubsAndDescription(List.of(notModifiedUrl, reservedUrl));
+
+        // Then - only the new validators are stored
+        verify(courseService, never()).updateCourseWithHubReqsAndDescription(any(), any(), any(), any());
+        verify(courseService).updateFetchValidators(reservedUrl, "\"v2\"", null);
+        verify(courseService, never()).updateFetchValidators(eq(notModifiedUrl), any(), any());
+    }
+
+    @Test
+    void contentHash_HubOrder_ShouldNotMatter() {
+        // When
+        String first = WebScraperService.contentHash(List.of("Quantitative Reasoning II", "Critical Thinking"), "Intro");
+        String second = WebScraperService.contentHash(List.of("Critical Thinking", "Quantitative Reasoning II"), "Intro");
+
+        // Then
+        assertThat(first).isEqualTo(second).hasSize(64);
+        assertThat(WebScraperService.contentHash(List.of("Critical Thinking"), "Intro")).isNotEqualTo(first);
+    }
+
     @Test
     void getCollege_ExistingCollege_ShouldReturnExisting() {
         // Given - College already exists
@@ -145,4 +250,29 @@ class WebScraperServiceTest {
         // Then - Should return early without processing
         verify(collegeRepository, never()).save(any(College.class));
     }
-}
\ No newline at end of file
+
+    // Helper methods
+    private ScraperEngine.FetchedPage createCoursePage(String etag) {
+        return new ScraperEngine.FetchedPage(Jsoup.parse(
+                "<ul class=\"cf-hub-offerings\"><li>Quantitative Reasoning II</li></ul>"
+                        + "<div id=\"course-content\"><p>No prior experience needed.</p></div>"), etag, null);
+    }
+
+    private CourseFetchState createFetchState(String url, String etag, String contentHash) {
+        return CourseFetchState.builder()
+                .baseUrl(url)
+                .etag(etag)
+                .contentHash(contentHash)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTasksInline() {
+        doAnswer(invocation -> {
+            Collection<Object> items = invocation.getArgument(0);
+            Consumer<Object> task = invocation.getArgument(1);
+            items.forEach(task);
+            return null;
+        }).when(scraperEngine).forEach(anyCollection(), any());
+    }
+}
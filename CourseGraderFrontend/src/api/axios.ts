@@ -1,5 +1,5 @@
 import axios from "axios";
-import { CourseDisplayDTO, UserDashboardDTO, HubProgressDTO, CourseDTO, CreateReviewDTO, ReviewResponseDTO, VoteResponseDTO, AccountDTO, UpdatePasswordDTO, ContactUsDTO, PasswordResetDTO, ChatRequestDTO } from "../auth/AuthDTOs";
+import { CourseDisplayDTO, CourseSuggestionDTO, UserDashboardDTO, HubProgressDTO, CourseDTO, CreateReviewDTO, ReviewPageDTO, ReviewResponseDTO, VoteResponseDTO, AccountDTO, UpdatePasswordDTO, ContactUsDTO, PasswordResetDTO, ChatRequestDTO, RagSyncJobDTO } from "../auth/AuthDTOs";
 
 const api = axios.create({
   baseURL: import.meta.env.VITE_API_URL, // baseURL: "http://localhost:8080/api" for local
@@ -92,13 +92,16 @@ export const fetchTeachersByCourse = async (courseId: string): Promise<string[]>
   return response.data;
 };
 
-export const fetchCourseReviews = async (courseId: string, teacherName?: string): Promise<ReviewResponseDTO[]> => {
+export const fetchCourseReviews = async (courseId: string, teacherName?: string, cursor?: string): Promise<ReviewPageDTO> => {
   const params = new URLSearchParams();
   if (teacherName) {
     params.append("teacherName", teacherName);
   }
+  if (cursor) {
+    params.append("cursor", cursor);
+  }
   const url = `/reviews/course/${courseId}${params.toString() ? `?${params.toString()}` : ''}`;
-  const response = await api.get<ReviewResponseDTO[]>(url);
+  const response = await api.get<ReviewPageDTO>(url);
   return response.data;
 };
 
@@ -192,16 +195,29 @@ export const fetchCoursesSearch = async (
   return api.get(`/courses/search?${params.toString()}`);
 };
 
-export const syncCoursesToRAG = async (): Promise<{ message: string } | string> => {
-  const response = await api.post("/ai/sync-courses");
+export const fetchCourseSuggestions = async (query: string, limit: number = 8): Promise<CourseSuggestionDTO[]> => {
+  const response = await api.get("/courses/suggest", { params: { q: query, limit } });
+  return response.data;
+};
+
+// Syncs run as background jobs, these return the queued (or already running) job
+export const syncCoursesToRAG = async (): Promise<RagSyncJobDTO> => {
+  const response = await api.post<RagSyncJobDTO>("/ai/sync-courses");
   return response.data;
 };
 
-export const syncReviewsToRAG = async (): Promise<{ message: string } | string> => {
-  const response = await api.post("/ai/sync-reviews");
+export const syncReviewsToRAG = async (): Promise<RagSyncJobDTO> => {
+  const response = await api.post<RagSyncJobDTO>("/ai/sync-reviews");
   return response.data;
 };
 
+export const fetchSyncJob = async (jobId: string): Promise<RagSyncJobDTO> => {
+  const response = await api.get<RagSyncJobDTO>(`/ai/sync-jobs/${jobId}`);
+  return response.data;
+};
+
+export const cancelSyncJob = (jobId: string) => api.post(`/ai/sync-jobs/${jobId}/cancel`);
+
 export const askAIAdvisor = async (request: ChatRequestDTO): Promise<string> => {
   const response = await api.post<string>("/ai/chat", request);
   return response.data;
@@ -71,6 +71,12 @@ export type CourseDisplayDTO = {
   description: string;
 }
 
+export type CourseSuggestionDTO = {
+  id: string;
+  display: string;
+  title: string;
+}
+
 export type UserDashboardDTO = {
   email: string;
   expectedGrad: number;
@@ -118,6 +124,7 @@ export type CourseDTO = {
   averageTeacherRating: number;
   hubRequirements: HubRequirementDTO[];
   userReviewed: boolean;
+  reviews: ReviewPageDTO; // first page of reviews
 }
 
 export enum VoteType {
@@ -147,6 +154,12 @@ export type ReviewResponseDTO = {
   userVote: VoteType | null;
 }
 
+export type ReviewPageDTO = {
+  reviews: ReviewResponseDTO[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export type CreateReviewDTO = {
  usefulnessRating: number; // @Min(1) @Max(5)
  difficultyRating: number; // @Min(1) @Max(5)
@@ -186,4 +199,18 @@ export type ContactUsDTO = {
 
 export type ChatRequestDTO = {
   message: string;
-};
\ No newline at end of file
+};
+
+export type RagSyncJobDTO = {
+  jobId: string;
+  type: "COURSE" | "REVIEW";
+  state: "QUEUED" | "RUNNING" | "COMPLETED" | "CANCELLED" | "FAILED";
+  total: number;
+  processed: number;
+  failed: number;
+  rowsPerSecond: number;
+  etaSeconds: number | null; // only while running
+  startedAt: string | null;
+  finishedAt: string | null;
+  error: string | null;
+};
@@ -1,6 +1,6 @@
 import { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import { voteOnReview, fetchReviewVotes, deleteReview } from "../api/axios";
+import { voteOnReview, deleteReview } from "../api/axios";
 import { useAuth } from "../auth/AuthProvider";
 import StarRating from "../components/StarRating";
 
@@ -12,26 +12,17 @@ const ReviewCard = ({ review }: ReviewCardProps) => {
   const { user } = useAuth();
   const navigate = useNavigate();
 
-  const [sumVote, setSumVote] = useState(0);
-  const [userVote, setUserVote] = useState<string | null>(null);
+  const [sumVote, setSumVote] = useState(review.upvoteCount - review.downvoteCount);
+  const [userVote, setUserVote] = useState<string | null>(review.userVote);
   const [voting, setVoting] = useState(false);
   const [deleting, setDeleting] = useState(false);
 
   const isAdmin = user?.role === "ADMIN";
 
   useEffect(() => {
-    const loadVotes = async () => {
-      try {
-        const data = await fetchReviewVotes(review.id.toString());
-        setSumVote(data.voteCount);
-        setUserVote(data.userVote);
-      } catch (err) {
-        console.error("Failed to load votes", err);
-      }
-    };
-
-    loadVotes();
-  }, [review.id]);
+    setSumVote(review.upvoteCount - review.downvoteCount);
+    setUserVote(review.userVote);
+  }, [review.id, review.upvoteCount, review.downvoteCount, review.userVote]);
 
   const handleVote = async (type: "UPVOTE" | "DOWNVOTE") => {
     if (!user) {
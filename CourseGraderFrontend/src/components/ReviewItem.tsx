@@ -1,9 +1,8 @@
 import { ReviewResponseDTO } from "../auth/AuthDTOs";
-import { voteOnReview, fetchReviewVotes } from "../api/axios";
+import { voteOnReview } from "../api/axios";
 import { useAuth } from "../auth/AuthProvider";
 import { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import Spinner from "./Spinner";
 import ErrorDisplay from "./ErrorDisplay";
 import Upvote from "../assets/arrow-up-square.svg";
 import FillUpvote from "../assets/arrow-up-square-fill.svg";
@@ -20,31 +19,20 @@ interface Props {
 
 const ReviewItem = ({ review, onReviewDeleted }: Props) => {
   const { user } = useAuth();
-  const [loading, setLoading] = useState(true);
   const [voting, setVoting] = useState(false);
   const [deleting, setDeleting] = useState(false);
   const navigate = useNavigate();
-  const [sumVote, setSumVote] = useState(0);
-  const [userVote, setUserVote] = useState<string | null>(null);
+  // Vote totals and the user's own vote come with the review, no request per card
+  const [sumVote, setSumVote] = useState(review.upvoteCount - review.downvoteCount);
+  const [userVote, setUserVote] = useState<string | null>(review.userVote);
   const [error, setError] = useState<string | null>(null);
 
   const isAdmin = user?.role === "ADMIN";
 
   useEffect(() => {
-    const loadVotes = async () => {
-      setLoading(true);
-      try {
-        const voteData = await fetchReviewVotes(review.id.toString());
-        setSumVote(voteData.voteCount);
-        setUserVote(voteData.userVote);
-      } catch (err: any) {
-        setError(err);
-      } finally {
-        setLoading(false);
-      }
-    };
-    loadVotes();
-  }, [review.id]);
+    setSumVote(review.upvoteCount - review.downvoteCount);
+    setUserVote(review.userVote);
+  }, [review.id, review.upvoteCount, review.downvoteCount, review.userVote]);
 
   const handleDelete = async () => {
     try {
@@ -79,7 +67,6 @@ const ReviewItem = ({ review, onReviewDeleted }: Props) => {
     }
   };
 
-  if (loading) return <Spinner />;
 
   if (error) return <ErrorDisplay error={error} />;
 
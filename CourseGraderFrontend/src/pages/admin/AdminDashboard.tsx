@@ -1,10 +1,37 @@
-import { syncCoursesToRAG, syncReviewsToRAG } from "../../api/axios";
+import { useState, useEffect } from "react";
+import { syncCoursesToRAG, syncReviewsToRAG, fetchSyncJob, cancelSyncJob } from "../../api/axios";
+import { RagSyncJobDTO } from "../../auth/AuthDTOs";
+
+const POLL_INTERVAL_MS = 2000;
+
+const isRunning = (job: RagSyncJobDTO) => job.state === "QUEUED" || job.state === "RUNNING";
 
 const AdminDashboard = () => {
+  const [jobs, setJobs] = useState<RagSyncJobDTO[]>([]);
+
+  const updateJob = (job: RagSyncJobDTO) => {
+    setJobs((prev) => [job, ...prev.filter((j) => j.jobId !== job.jobId)]);
+  };
+
+  // poll the unfinished jobs until they complete, fail or are cancelled
+  useEffect(() => {
+    const running = jobs.filter(isRunning);
+    if (running.length === 0) return;
+    const timer = setTimeout(async () => {
+      for (const job of running) {
+        try {
+          updateJob(await fetchSyncJob(job.jobId));
+        } catch (err) {
+          console.error(err);
+        }
+      }
+    }, POLL_INTERVAL_MS);
+    return () => clearTimeout(timer);
+  }, [jobs]);
+
   const handleSyncCourses = async () => {
     try {
-      const res = await syncCoursesToRAG();
-      alert(typeof res === "string" ? res : res.message);
+      updateJob(await syncCoursesToRAG());
     } catch (err) {
       console.error(err);
       alert("Course sync failed");
@@ -13,14 +40,23 @@ const AdminDashboard = () => {
 
   const handleSyncReviews = async () => {
     try {
-      const res = await syncReviewsToRAG();
-      alert(typeof res === "string" ? res : res.message);
+      updateJob(await syncReviewsToRAG());
     } catch (err) {
       console.error(err);
       alert("Review sync failed");
     }
   };
 
+  const handleCancel = async (jobId: string) => {
+    try {
+      await cancelSyncJob(jobId);
+      updateJob(await fetchSyncJob(jobId));
+    } catch (err) {
+      console.error(err);
+      alert("Could not cancel the sync, it may have finished already");
+    }
+  };
+
   return (
     <div className="container my-5">
       <h1 className="fw-bold">Admin Commands</h1>
@@ -30,6 +66,47 @@ const AdminDashboard = () => {
       <button className="btn btn-bu-red" onClick={handleSyncReviews}>
         Sync reviews
       </button>
+
+      {jobs.length > 0 && (
+        <table className="table mt-4">
+          <thead>
+            <tr>
+              <th>Job</th>
+              <th>Type</th>
+              <th>State</th>
+              <th>Progress</th>
+              <th>Failed</th>
+              <th>ETA</th>
+              <th></th>
+            </tr>
+          </thead>
+          <tbody>
+            {jobs.map((job) => (
+              <tr key={job.jobId}>
+                <td><code>{job.jobId}</code></td>
+                <td>{job.type}</td>
+                <td>
+                  {job.state}
+                  {job.error && <div className="text-danger small">{job.error}</div>}
+                </td>
+                <td>
+                  {job.processed} / {job.total}
+                  {job.rowsPerSecond > 0 && ` (${job.rowsPerSecond.toFixed(1)} rows/s)`}
+                </td>
+                <td>{job.failed}</td>
+                <td>{job.etaSeconds !== null ? `${job.etaSeconds}s` : "-"}</td>
+                <td>
+                  {isRunning(job) && (
+                    <button className="btn btn-sm btn-outline-secondary" onClick={() => handleCancel(job.jobId)}>
+                      Cancel
+                    </button>
+                  )}
+                </td>
+              </tr>
+            ))}
+          </tbody>
+        </table>
+      )}
     </div>
   );
 };
@@ -28,6 +28,8 @@ const CoursePage = () => {
   const [error, setError] = useState<string | null>("");
 
   const [reviews, setReviews] = useState<ReviewResponseDTO[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [selectedTeacher, setSelectedTeacher] = useState("");
   const [teacherScore, setTeacherScore] = useState<number | null>(null);
 
@@ -37,7 +39,9 @@ const CoursePage = () => {
   const [completed, setCompleted] = useState(false);
   const [togglingCompleted, setTogglingCompleted] = useState(false);
 
-  const hasUserReviewed = reviews?.some((review) => review.owner) ?? false;
+  // reviews are paged, so the user's own review may not be loaded yet
+  const hasUserReviewed =
+    (course?.userReviewed ?? false) || reviews.some((review) => review.owner);
 
   useEffect(() => {
     if (!user) return;
@@ -97,8 +101,13 @@ const CoursePage = () => {
       if (!course?.id) return;
       setLoading(true);
       try {
-        const reviewData = await fetchCourseReviews(course.id, selectedTeacher);
-        setReviews(reviewData);
+        // first page without a teacher filter already came with the course
+        const reviewPage =
+          selectedTeacher === "" && course.reviews
+            ? course.reviews
+            : await fetchCourseReviews(course.id, selectedTeacher);
+        setReviews(reviewPage.reviews);
+        setNextCursor(reviewPage.nextCursor);
         if (selectedTeacher !== "") {
           const teacherData = await fetchTeacherScore(
             course.id,
@@ -117,6 +126,24 @@ const CoursePage = () => {
     loadReviews();
   }, [course?.id, selectedTeacher]);
 
+  const loadMoreReviews = async () => {
+    if (!course?.id || !nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const reviewPage = await fetchCourseReviews(
+        course.id,
+        selectedTeacher,
+        nextCursor
+      );
+      setReviews((prevReviews) => [...prevReviews, ...reviewPage.reviews]);
+      setNextCursor(reviewPage.nextCursor);
+    } catch (err: any) {
+      console.log(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleTeacherChange = (event: React.ChangeEvent<HTMLSelectElement>) => {
     setSelectedTeacher(event.target.value);
   };
@@ -314,9 +341,22 @@ const CoursePage = () => {
                 </button>
               </div>
             ) : (
-              reviews.map((review) => (
-                <ReviewCard key={review.id} review={review} />
-              ))
+              <>
+                {reviews.map((review) => (
+                  <ReviewCard key={review.id} review={review} />
+                ))}
+                {nextCursor && (
+                  <div className="text-center">
+                    <button
+                      className="btn-outline-bu-red rounded-2 p-2"
+                      onClick={loadMoreReviews}
+                      disabled={loadingMore}
+                    >
+                      {loadingMore ? "Loading..." : "Load more reviews"}
+                    </button>
+                  </div>
+                )}
+              </>
             )}
           </div>
         </div>
@@ -1,6 +1,6 @@
 import { useState, useEffect, useRef } from "react";
-import { fetchDepartmentsByCollege, fetchCoursesSearch } from "../../api/axios";
-import { CourseDisplayDTO } from "../../auth/AuthDTOs";
+import { fetchDepartmentsByCollege, fetchCoursesSearch, fetchCourseSuggestions } from "../../api/axios";
+import { CourseDisplayDTO, CourseSuggestionDTO } from "../../auth/AuthDTOs";
 import StarRating from "../../components/StarRating";
 import { Link } from "react-router-dom";
 import Spinner from "../../components/Spinner";
@@ -63,6 +63,7 @@ const Search = () => {
   const [sortBy, setSortBy] = useState("byCourseCode");
   const [searchInput, setSearchInput] = useState("");
   const [searchQuery, setSearchQuery] = useState("");
+  const [suggestions, setSuggestions] = useState<CourseSuggestionDTO[]>([]);
 
   const [courses, setCourses] = useState<CourseDisplayDTO[]>([]);
   const [page, setPage] = useState(0);
@@ -71,6 +72,7 @@ const Search = () => {
   const [totalCourses, setTotalCourses] = useState(0);
 
   const requestIdRef = useRef(0); // to get rid of async race condition
+  const suggestIdRef = useRef(0);
 
   const [isMobile, setIsMobile] = useState(
     window.matchMedia("(max-width: 767px)").matches
@@ -158,6 +160,20 @@ const Search = () => {
     window.scrollTo({ top: 0, behavior: "smooth" });
   }, [page]);
 
+  // typeahead from the in-memory suggestion index, cheap enough to ask on every keystroke
+  useEffect(() => {
+    const suggestId = ++suggestIdRef.current;
+    if (!searchInput.trim()) {
+      setSuggestions([]);
+      return;
+    }
+    fetchCourseSuggestions(searchInput.trim())
+      .then((res) => {
+        if (suggestId === suggestIdRef.current) setSuggestions(res);
+      })
+      .catch(() => setSuggestions([]));
+  }, [searchInput]);
+
   // department fetch — reset immediately
   useEffect(() => {
     setDepartments([]);
@@ -299,6 +315,7 @@ const Search = () => {
                 <option value="byCourseCode">Course Number</option>
                 <option value="byRating">Best Rating</option>
                 <option value="byReviews">Most Reviewed</option>
+                <option value="byRelevance">Best Match</option>
               </select>
             </div>
             <div>
@@ -327,7 +344,15 @@ const Search = () => {
                 placeholder="Search by course code or name (e.g. CS 112 or Introduction to Computer Science)"
                 value={searchInput}
                 onChange={(e) => setSearchInput(e.target.value)}
+                list="course-suggestions"
               />
+              <datalist id="course-suggestions">
+                {suggestions.map((suggestion) => (
+                  <option key={suggestion.id} value={suggestion.display}>
+                    {suggestion.title}
+                  </option>
+                ))}
+              </datalist>
             </form>
           </div>
           <p className="text-muted p-0 my-3 ms-2">{totalCourses} results</p>